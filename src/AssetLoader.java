@@ -0,0 +1,258 @@
+import bagel.Font;
+import bagel.Image;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads and caches every image and font used by the game.
+ * Asset files are read and decoded on background threads while the home screen is showing,
+ * and the render thread then creates the Bagel images and fonts a few at a time.
+ * Game objects share the cached instances, so building a level never touches the disk.
+ */
+public class AssetLoader {
+    // Every sprite the game objects may ask for
+    private static final String[] IMAGE_PATHS = {
+            "res/mario_right.png", "res/mario_left.png",
+            "res/mario_hammer_right.png", "res/mario_hammer_left.png",
+            "res/mario_blaster_right.png", "res/mario_blaster_left.png",
+            "res/donkey_kong.png", "res/barrel.png", "res/ladder.png", "res/platform.png",
+            "res/hammer.png", "res/blaster.png", "res/banana.png",
+            "res/bullet_right.png", "res/bullet_left.png",
+            "res/normal_monkey_right.png", "res/normal_monkey_left.png",
+            "res/intelli_monkey_right.png", "res/intelli_monkey_left.png"
+    };
+    private static final int DECODER_THREADS = 2;
+
+    // Render thread objects, keyed by path (images) or "path@size" (fonts)
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+    private static final Map<String, Font> FONTS = new ConcurrentHashMap<>();
+    private static final Map<Image, String> IMAGE_PATHS_BY_IMAGE = new ConcurrentHashMap<>();
+
+    // Decoded pixel buffers produced by the background threads
+    private static final Map<String, BufferedImage> PIXELS = new ConcurrentHashMap<>();
+
+    // Collision masks, built from the decoded pixels alongside them
+    private static final Map<String, CollisionMask> MASKS = new ConcurrentHashMap<>();
+
+    // Assets whose files have been read and are waiting for the render thread
+    private static final ConcurrentLinkedQueue<String> READY_IMAGES = new ConcurrentLinkedQueue<>();
+    private static final ConcurrentLinkedQueue<String> READY_FONTS = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger uploaded = new AtomicInteger();
+    private static int totalAssets = 0;
+    private static ExecutorService decoder;
+
+    /**
+     * Starts reading and decoding every image and font on background threads.
+     * Calling this more than once has no effect.
+     *
+     * @param config Game settings containing the font and background image paths.
+     */
+    public static synchronized void start(GameConfig config) {
+        if (decoder != null) {
+            return;
+        }
+        List<String> images = new ArrayList<>(List.of(IMAGE_PATHS));
+        images.add(config.getBackgroundImage());
+
+        // Every font size needs its own font atlas
+        List<String> fonts = new ArrayList<>();
+        for (int size : config.getFontSizes()) {
+            String fontKey = fontKey(config.getFontFile(), size);
+            if (!fonts.contains(fontKey)) {
+                fonts.add(fontKey);
+            }
+        }
+        totalAssets = images.size() + fonts.size();
+
+        decoder = Executors.newFixedThreadPool(DECODER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "asset-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String path : images) {
+            decoder.submit(() -> decodeImage(path));
+        }
+        for (String fontKey : fonts) {
+            decoder.submit(() -> readFont(fontKey));
+        }
+        decoder.shutdown();
+    }
+
+    /**
+     * Creates Bagel images and fonts for assets that the background threads have finished decoding.
+     * Must be called on the render thread.
+     *
+     * @param maxUploads The maximum number of assets to create in this call.
+     * @return The number of assets created.
+     */
+    public static int uploadPending(int maxUploads) {
+        int count = 0;
+        while (count < maxUploads) {
+            String path = READY_IMAGES.poll();
+            if (path != null) {
+                getImage(path);
+            } else {
+                String fontKey = READY_FONTS.poll();
+                if (fontKey == null) {
+                    break;
+                }
+                int split = fontKey.lastIndexOf('@');
+                getFont(fontKey.substring(0, split), Integer.parseInt(fontKey.substring(split + 1)));
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns how much of the preloading has finished.
+     *
+     * @return A value between 0 and 1, where 1 means every asset is ready to draw.
+     */
+    public static double getProgress() {
+        if (totalAssets == 0) {
+            return 0;
+        }
+        return Math.min(1.0, (double) uploaded.get() / totalAssets);
+    }
+
+    /**
+     * Checks whether every preloaded asset is ready to draw.
+     *
+     * @return {@code true} if all assets have been created, {@code false} otherwise.
+     */
+    public static boolean isComplete() {
+        return totalAssets > 0 && uploaded.get() >= totalAssets;
+    }
+
+    /**
+     * Returns the shared image for a file, creating it if it has not been preloaded yet.
+     * Creating an image needs the render thread.
+     *
+     * @param path The path of the image file.
+     * @return The cached {@link Image}.
+     */
+    public static Image getImage(String path) {
+        Image image = IMAGES.get(path);
+        if (image == null) {
+            image = new Image(path);
+            IMAGES.put(path, image);
+            IMAGE_PATHS_BY_IMAGE.put(image, path);
+            uploaded.incrementAndGet();
+        }
+        return image;
+    }
+
+    /**
+     * Returns the shared font for a file and size, creating it if it has not been preloaded yet.
+     * Creating a font needs the render thread.
+     *
+     * @param path The path of the font file.
+     * @param size The font size.
+     * @return The cached {@link Font}.
+     */
+    public static Font getFont(String path, int size) {
+        String key = fontKey(path, size);
+        Font font = FONTS.get(key);
+        if (font == null) {
+            font = new Font(path, size);
+            FONTS.put(key, font);
+            uploaded.incrementAndGet();
+        }
+        return font;
+    }
+
+    /**
+     * Returns the decoded pixels of an image, or {@code null} if it has not been decoded.
+     * Safe to call from any thread.
+     *
+     * @param path The path of the image file.
+     * @return The decoded {@link BufferedImage}, or {@code null}.
+     */
+    public static BufferedImage getPixels(String path) {
+        return PIXELS.get(path);
+    }
+
+    /**
+     * Returns the shared collision mask of an image, building it from the image's alpha channel
+     * if the background threads have not already. Safe to call from any thread.
+     *
+     * @param path The path of the image file.
+     * @return The cached {@link CollisionMask}, or {@code null} if the image cannot be read,
+     *         in which case the object collides with its whole bounding box.
+     */
+    public static CollisionMask getMask(String path) {
+        CollisionMask mask = MASKS.get(path);
+        if (mask == null) {
+            BufferedImage pixels = PIXELS.get(path);
+            try {
+                if (pixels == null) {
+                    pixels = ImageIO.read(Paths.get(path).toFile());
+                }
+            } catch (IOException ex) {
+                System.err.println("Could not read the collision mask of " + path + ": " + ex.getMessage());
+            }
+            if (pixels == null) {
+                return null;
+            }
+            mask = CollisionMask.fromImage(pixels);
+            MASKS.put(path, mask);
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the shared collision mask of an image created by {@link #getImage}.
+     *
+     * @param image The image.
+     * @return The cached {@link CollisionMask}, or {@code null} if the image has none.
+     */
+    public static CollisionMask getMask(Image image) {
+        String path = IMAGE_PATHS_BY_IMAGE.get(image);
+        return path == null ? null : getMask(path);
+    }
+
+    /** Reads and decodes one image on a background thread. */
+    private static void decodeImage(String path) {
+        try {
+            byte[] bytes = Files.readAllBytes(Paths.get(path));
+            BufferedImage pixels = ImageIO.read(new ByteArrayInputStream(bytes));
+            if (pixels != null) {
+                PIXELS.put(path, pixels);
+                MASKS.put(path, CollisionMask.fromImage(pixels));
+            }
+        } catch (IOException ex) {
+            // Leave it to the render thread, which reports the missing file when it is used
+            ex.printStackTrace();
+        }
+        READY_IMAGES.add(path);
+    }
+
+    /** Reads one font file on a background thread so the render thread finds it in the page cache. */
+    private static void readFont(String fontKey) {
+        try {
+            Files.readAllBytes(Paths.get(fontKey.substring(0, fontKey.lastIndexOf('@'))));
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        READY_FONTS.add(fontKey);
+    }
+
+    private static String fontKey(String path, int size) {
+        return path + "@" + size;
+    }
+}
@@ -1,12 +1,17 @@
 import bagel.Image;
 import bagel.util.Rectangle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Represents the object of Banana.
  * Banana can be shot by intelligent monkeys, and it can kill Mario.
  */
-public class Banana {
+public class Banana implements Collider {
     private double x, y;
+    private double previousX, previousY;            // Position at the start of the frame, for swept collisions
     private final double WIDTH, HEIGHT;
     private static final double speed = 1.8;        // Banana has constant speed of 1.8 pixels per frame
     private static final double MAX_DISTANCE = 300; // Banana can move at most 300 pixels.
@@ -25,16 +30,22 @@ public class Banana {
     public Banana(double startX, double startY, boolean toRight) {
         this.x = startX;
         this.y = startY;
+        this.previousX = startX;
+        this.previousY = startY;
         this.toRight = toRight;
-        this.BANANA_IMAGE = new Image("res/banana.png");
+        this.BANANA_IMAGE = AssetLoader.getImage("res/banana.png");
         this.WIDTH = BANANA_IMAGE.getWidth();
         this.HEIGHT = BANANA_IMAGE.getHeight();
     }
 
     /**
      * Update the Banana's position, checks if banana is out of boundary or travelled to long.
+     *
+     * @param worldWidth The width of the level, beyond which the banana is spent.
      */
-    public void update() {
+    public void update(double worldWidth) {
+        previousX = x;
+        previousY = y;
         if (!active) {
             return;
         }
@@ -44,7 +55,7 @@ public class Banana {
         distanceTraveled += Math.abs(speed_x);
 
         // De-active if out of boundary or travelled to long
-        if (x < 0 || x > ShadowDonkeyKong.getScreenWidth() || distanceTraveled > MAX_DISTANCE) {
+        if (x < 0 || x > worldWidth || distanceTraveled > MAX_DISTANCE) {
             deActive();
         }
     }
@@ -54,7 +65,9 @@ public class Banana {
      * Draw the banana on the screen if it is active.
      */
     public void draw() {
-        if (active) BANANA_IMAGE.draw(x, y);
+        if (active && Camera.isVisible(x, y, WIDTH, HEIGHT)) {
+            BANANA_IMAGE.draw(Camera.toScreenX(x), Camera.toScreenY(y));
+        }
     }
 
     /**
@@ -75,10 +88,74 @@ public class Banana {
                 BANANA_IMAGE.getWidth(), BANANA_IMAGE.getHeight());
     }
 
+    /**
+     * Retrieves the bounding box at the start of the frame, for swept collisions.
+     * @return The bounding box in world coordinates at the start of the frame.
+     */
+    @Override
+    public Rectangle getPreviousBoundingBox() {
+        return Sweep.shift(getBoundingBox(), previousX - x, previousY - y);
+    }
+
+    /**
+     * Retrieves the opaque pixels of the banana's current sprite.
+     * @return The collision mask of the sprite.
+     */
+    @Override
+    public CollisionMask getCollisionMask() {
+        return AssetLoader.getMask(BANANA_IMAGE);
+    }
+
+    /**
+     * Retrieves the layer this object collides on.
+     * @return {@link CollisionLayer#BANANA}.
+     */
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayer.BANANA;
+    }
+
+    /**
+     * Checks whether this object can collide right now. Spent bananas no longer collide.
+     * @return {@code true} if this object can collide, {@code false} otherwise.
+     */
+    @Override
+    public boolean isCollidable() {
+        return isActive();
+    }
+
     /**
      * De-active the banana if needed.
      */
     public void deActive() {
         active = false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the banana's position, direction and progress, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeBoolean(toRight);
+        out.writeDouble(distanceTraveled);
+        out.writeBoolean(active);
+    }
+
+    /**
+     * Rebuilds a banana from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @return The restored banana.
+     * @throws IOException if the stream cannot be read.
+     */
+    public static Banana readState(DataInputStream in) throws IOException {
+        Banana banana = new Banana(in.readDouble(), in.readDouble(), in.readBoolean());
+        banana.distanceTraveled = in.readDouble();
+        banana.active = in.readBoolean();
+        return banana;
+    }
+}
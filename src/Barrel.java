@@ -2,16 +2,22 @@ import bagel.*;
 import bagel.util.Colour;
 import bagel.util.Rectangle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Represents a barrel in the game, affected by gravity and platform collisions.
  * The barrel can be destroyed, at which point it will no longer be drawn or interact with the environment.
  */
-public class Barrel {
+public class Barrel implements Collider {
     private final Image BARREL_IMAGE;
     private final double X;               // constant because x does not change, only relying on falling
     private double y;
+    private double previousY;   // The y-coordinate at the start of the frame, for swept collisions
     private double velocityY = 0;         // Barrel's vertical velocity
     private boolean isDestroyed = false;  // Whether barrel is being destroyed
+    private boolean isSettled;            // Whether barrel rests on a platform and no longer moves
 
     /**
      * Constructs a new Barrel at the specified starting position.
@@ -20,19 +26,35 @@ public class Barrel {
      * @param startY The initial y-coordinate of the barrel.
      */
     public Barrel(double startX, double startY) {
-        this.BARREL_IMAGE = new Image("res/barrel.png"); // Load barrel sprite
+        this(startX, startY, false);
+    }
+
+    /**
+     * Constructs a new Barrel at the specified starting position, which may already be its resting position.
+     *
+     * @param startX  The initial x-coordinate of the barrel.
+     * @param startY  The initial y-coordinate of the barrel.
+     * @param settled {@code true} if the barrel already rests on a platform.
+     */
+    public Barrel(double startX, double startY, boolean settled) {
+        this.BARREL_IMAGE = AssetLoader.getImage("res/barrel.png"); // Load barrel sprite
         this.X = startX;
         this.y = startY;
+        this.previousY = startY;
+        this.isSettled = settled;
     }
 
     /**
      * Updates the barrel's position, applies gravity, checks for platform collisions,
-     * and renders the barrel if it is not destroyed.
+     * and renders the barrel if it is not destroyed. A settled barrel is only drawn.
      *
      * @param platforms An array of platforms for collision detection.
      */
     public void update(Platform[] platforms) {
-        if (!isDestroyed) {
+        previousY = y;
+        if (!isDestroyed && isSettled) {
+            draw();
+        } else if (!isDestroyed) {
             // 1) Apply gravity
             velocityY += Physics.BARREL_GRAVITY;
             if (velocityY > Physics.BARREL_TERMINAL_VELOCITY) {
@@ -40,14 +62,13 @@ public class Barrel {
             }
             y += velocityY;
 
-            // 2) Check for platform collisions
-            for (Platform platform : platforms) {
-                if (this.getBoundingBox().intersects(platform.getBoundingBox())) {
-                    // Position the barrel on top of the platform
-                    y = platform.getY() - (platform.getHeight() / 2) - (BARREL_IMAGE.getHeight() / 2);
-                    velocityY = 0; // Stop falling
-                    break;
-                }
+            // 2) Check for platform collisions along the fall, landing on the first platform reached
+            Platform platform = Sweep.firstPlatform(getPreviousBoundingBox(), getBoundingBox(), platforms);
+            if (platform != null) {
+                // Position the barrel on top of the platform
+                y = platform.getY() - (platform.getHeight() / 2) - (BARREL_IMAGE.getHeight() / 2);
+                velocityY = 0; // Stop falling
+                isSettled = (y == previousY);
             }
 
             // 3) Draw the barrel
@@ -60,8 +81,8 @@ public class Barrel {
      * Draws the barrel on the screen if it is not destroyed.
      */
     public void draw() {
-        if (!isDestroyed) {
-            BARREL_IMAGE.draw(X, y);
+        if (!isDestroyed && Camera.isVisible(X, y, BARREL_IMAGE.getWidth(), BARREL_IMAGE.getHeight())) {
+            BARREL_IMAGE.draw(Camera.toScreenX(X), Camera.toScreenY(y));
 //            drawBoundingBox(); // Uncomment for debugging
         }
     }
@@ -84,6 +105,42 @@ public class Barrel {
         );
     }
 
+    /**
+     * Retrieves the bounding box at the start of the frame, for swept collisions.
+     * @return The bounding box in world coordinates at the start of the frame.
+     */
+    @Override
+    public Rectangle getPreviousBoundingBox() {
+        return Sweep.shift(getBoundingBox(), 0, previousY - y);
+    }
+
+    /**
+     * Retrieves the opaque pixels of the barrel's current sprite.
+     * @return The collision mask of the sprite.
+     */
+    @Override
+    public CollisionMask getCollisionMask() {
+        return AssetLoader.getMask(BARREL_IMAGE);
+    }
+
+    /**
+     * Retrieves the layer this object collides on.
+     * @return {@link CollisionLayer#BARREL}.
+     */
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayer.BARREL;
+    }
+
+    /**
+     * Checks whether this object can collide right now. Destroyed barrels no longer collide.
+     * @return {@code true} if this object can collide, {@code false} otherwise.
+     */
+    @Override
+    public boolean isCollidable() {
+        return !isDestroyed();
+    }
+
     /**
      * Marks the barrel as destroyed, preventing it from being drawn or updated.
      */
@@ -100,6 +157,15 @@ public class Barrel {
         return isDestroyed;
     }
 
+    /**
+     * Checks if the barrel rests on a platform and no longer moves.
+     *
+     * @return {@code true} if the barrel has settled, {@code false} otherwise.
+     */
+    public boolean isSettled() {
+        return isSettled;
+    }
+
     /**
      * Retrieves the barrel's image.
      *
@@ -122,4 +188,31 @@ public class Barrel {
      * @return The current y-coordinate of the barrel.
      */
     public double getY() { return y; }
+
+    /**
+     * Writes the barrel's fall and whether it is destroyed, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(y);
+        out.writeDouble(velocityY);
+        out.writeBoolean(isDestroyed);
+        out.writeBoolean(isSettled);
+    }
+
+    /**
+     * Restores the barrel from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        y = in.readDouble();
+        previousY = y;
+        velocityY = in.readDouble();
+        isDestroyed = in.readBoolean();
+        isSettled = in.readBoolean();
+    }
 }
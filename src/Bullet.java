@@ -2,13 +2,18 @@ import bagel.*;
 import bagel.Image;
 import bagel.util.Rectangle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Represents Bullets in the game.
  * The Bullets can be shot by Mario when he holds a Blaster.
  * The Bullets can kill monkeys and donkey.
  */
-public class Bullet {
+public class Bullet implements Collider {
     private double x, y;
+    private double previousX, previousY;            // Position at the start of the frame, for swept collisions
     private final double WIDTH, HEIGHT;
     private static final double speed = 3.8;        // Constant speed of 3.8 pixels per frame
     private static final double MAX_DISTANCE = 300; // Bullet can move at most 300 pixels
@@ -28,11 +33,13 @@ public class Bullet {
     public Bullet(double startX, double startY, boolean toRight) {
         this.x = startX;
         this.y = startY;
+        this.previousX = startX;
+        this.previousY = startY;
         this.toRight = toRight;
         if (toRight == true) {
-            this.BULLET_IMAGE = new Image("res/bullet_right.png");
+            this.BULLET_IMAGE = AssetLoader.getImage("res/bullet_right.png");
         } else {
-            this.BULLET_IMAGE = new Image("res/bullet_left.png");
+            this.BULLET_IMAGE = AssetLoader.getImage("res/bullet_left.png");
         }
         this.WIDTH = BULLET_IMAGE.getWidth();
         this.HEIGHT = BULLET_IMAGE.getHeight();
@@ -41,9 +48,13 @@ public class Bullet {
 
     /**
      * Update bullet's position, checks if out of boundary or travelled too long.
-     * @param platforms
+     * Hitting platforms and targets is handled by the collision dispatcher.
+     *
+     * @param worldWidth The width of the level, beyond which the bullet is spent.
      */
-    public void update(Platform[] platforms) {
+    public void update(double worldWidth) {
+        previousX = x;
+        previousY = y;
         if (!active) {
             return;
         }
@@ -53,21 +64,18 @@ public class Bullet {
         distanceTraveled += Math.abs(speed_x);
 
         // De-active if out of boundary or travelled too long
-        if (x < 0 || x > ShadowDonkeyKong.getScreenWidth() || distanceTraveled > MAX_DISTANCE) {
+        if (x < 0 || x > worldWidth || distanceTraveled > MAX_DISTANCE) {
             deActive();
         }
-
-        // De-active if touches any platform
-        handlePlatforms(platforms);
-
-
     }
 
     /**
      * Draw the bullet on the screen if it is active.
      */
     public void draw() {
-        if (active) BULLET_IMAGE.draw(x, y);
+        if (active && Camera.isVisible(x, y, WIDTH, HEIGHT)) {
+            BULLET_IMAGE.draw(Camera.toScreenX(x), Camera.toScreenY(y));
+        }
     }
 
     /**
@@ -89,6 +97,42 @@ public class Bullet {
                                BULLET_IMAGE.getWidth(), BULLET_IMAGE.getHeight());
     }
 
+    /**
+     * Retrieves the bounding box at the start of the frame, for swept collisions.
+     * @return The bounding box in world coordinates at the start of the frame.
+     */
+    @Override
+    public Rectangle getPreviousBoundingBox() {
+        return Sweep.shift(getBoundingBox(), previousX - x, previousY - y);
+    }
+
+    /**
+     * Retrieves the opaque pixels of the bullet's current sprite.
+     * @return The collision mask of the sprite.
+     */
+    @Override
+    public CollisionMask getCollisionMask() {
+        return AssetLoader.getMask(BULLET_IMAGE);
+    }
+
+    /**
+     * Retrieves the layer this object collides on.
+     * @return {@link CollisionLayer#BULLET}.
+     */
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayer.BULLET;
+    }
+
+    /**
+     * Checks whether this object can collide right now. Spent bullets no longer collide.
+     * @return {@code true} if this object can collide, {@code false} otherwise.
+     */
+    @Override
+    public boolean isCollidable() {
+        return isActive();
+    }
+
     /**
      * De-active the bullet
      */
@@ -97,14 +141,30 @@ public class Bullet {
     }
 
     /**
-     * De-active the bullet when touching platforms
+     * Writes the bullet's position, direction and progress, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
      */
-    private void handlePlatforms(Platform[] platforms) {
-        Rectangle bulletBox = getBoundingBox();
-        for (Platform p : platforms) {
-            if (bulletBox.intersects(p.getBoundingBox())) {
-                deActive();
-            }
-        }
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeBoolean(toRight);
+        out.writeDouble(distanceTraveled);
+        out.writeBoolean(active);
+    }
+
+    /**
+     * Rebuilds a bullet from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @return The restored bullet.
+     * @throws IOException if the stream cannot be read.
+     */
+    public static Bullet readState(DataInputStream in) throws IOException {
+        Bullet bullet = new Bullet(in.readDouble(), in.readDouble(), in.readBoolean());
+        bullet.distanceTraveled = in.readDouble();
+        bullet.active = in.readBoolean();
+        return bullet;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+/**
+ * The Camera class maps world coordinates to the window for the level being played.
+ * It follows Mario through levels that are larger than the window and lets game objects
+ * skip drawing when their bounding box lies outside the visible area. Drawing can also be switched off
+ * altogether for ticks that are played but not shown, such as when the game runs faster than real time.
+ * The camera is only for drawing; the size of the level that gameplay keeps to belongs to the screen being played.
+ */
+public class Camera {
+    private static double x = 0;   // World x-coordinate shown at the left edge of the window
+    private static double y = 0;   // World y-coordinate shown at the top edge of the window
+    private static boolean drawing = true;   // Whether this tick is shown
+
+    /**
+     * Centres the view on a target, without showing anything outside the world.
+     *
+     * @param targetX     The x-coordinate to follow, usually Mario's.
+     * @param targetY     The y-coordinate to follow, usually Mario's.
+     * @param levelWidth  The width of the current level in pixels.
+     * @param levelHeight The height of the current level in pixels.
+     */
+    public static void follow(double targetX, double targetY, double levelWidth, double levelHeight) {
+        double viewWidth = ShadowDonkeyKong.getScreenWidth();
+        double viewHeight = ShadowDonkeyKong.getScreenHeight();
+        double worldWidth = Math.max(levelWidth, viewWidth);
+        double worldHeight = Math.max(levelHeight, viewHeight);
+
+        x = clamp(targetX - viewWidth / 2, worldWidth - viewWidth);
+        y = clamp(targetY - viewHeight / 2, worldHeight - viewHeight);
+    }
+
+    /**
+     * Switches drawing on or off for the ticks that follow.
+     *
+     * @param drawing {@code true} to draw, {@code false} to skip every draw call.
+     */
+    public static void setDrawing(boolean drawing) {
+        Camera.drawing = drawing;
+    }
+
+    /**
+     * Checks whether the current tick is drawn.
+     * @return {@code true} if the current tick is drawn, {@code false} otherwise.
+     */
+    public static boolean isDrawing() {
+        return drawing;
+    }
+
+    /**
+     * Checks whether a centre-based box overlaps the visible area.
+     *
+     * @param centreX The x-coordinate of the box centre in the world.
+     * @param centreY The y-coordinate of the box centre in the world.
+     * @param width   The width of the box.
+     * @param height  The height of the box.
+     * @return {@code true} if any part of the box is visible and this tick is drawn, {@code false} otherwise.
+     */
+    public static boolean isVisible(double centreX, double centreY, double width, double height) {
+        return drawing
+                && centreX + width / 2 >= x && centreX - width / 2 <= x + ShadowDonkeyKong.getScreenWidth()
+                && centreY + height / 2 >= y && centreY - height / 2 <= y + ShadowDonkeyKong.getScreenHeight();
+    }
+
+    /**
+     * Converts a world x-coordinate to a window x-coordinate.
+     *
+     * @param worldX The x-coordinate in the world.
+     * @return The x-coordinate in the window.
+     */
+    public static double toScreenX(double worldX) {
+        return worldX - x;
+    }
+
+    /**
+     * Converts a world y-coordinate to a window y-coordinate.
+     *
+     * @param worldY The y-coordinate in the world.
+     * @return The y-coordinate in the window.
+     */
+    public static double toScreenY(double worldY) {
+        return worldY - y;
+    }
+
+    private static double clamp(double value, double max) {
+        return Math.max(0, Math.min(value, max));
+    }
+}
@@ -0,0 +1,162 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Represents a monkey that hunts Mario across the level instead of walking a fixed route.
+ * It walks towards Mario when they share a floor, and otherwise heads for the ladder the
+ * {@link PlatformGraph} gives for its floor and climbs it, up or down.
+ * Walking along a floor needs no platform tests, so a chaser costs less per frame than a route walker.
+ */
+public class ChasingMonkey extends Monkey {
+    private static final double CLIMB_SPEED = 1.0;   // Pixels per frame on a ladder
+    private static final int[] NO_ROUTE = new int[0];
+
+    private int floor = -1;              // The floor the monkey walks on, -1 while falling or climbing
+    private boolean climbing = false;
+    private int climbFloor = -1;         // The floor the monkey is climbing to
+
+    /**
+     * Construct Chasing Monkey object.
+     * @param x  The x-coordinate of Chasing Monkeys.
+     * @param y  The y-coordinate of Chasing Monkeys.
+     * @param direction  The direction of Chasing Monkeys.
+     */
+    public ChasingMonkey(double x, double y, String direction) {
+        super(x, y, direction.equals("right") ? "res/normal_monkey_right.png" : "res/normal_monkey_left.png");
+        this.leftSprite = AssetLoader.getImage("res/normal_monkey_left.png");
+        this.rightSprite = AssetLoader.getImage("res/normal_monkey_right.png");
+        this.movingRight = direction.equals("right");
+        this.route = NO_ROUTE;
+    }
+
+    /**
+     * Without a graph to find the way, Chasing Monkey only falls onto the platforms and stands there.
+     *
+     * @param mario Mario object in the game.
+     * @param platforms A list of platforms in the game.
+     * @param worldWidth The width of the level.
+     */
+    @Override
+    public void update(Mario mario, Platform[] platforms, double worldWidth) {
+        previousX = x;
+        previousY = y;
+        if (destroyed) return;
+
+        velocityY += Physics.MONKEY_GRAVITY;
+        y += velocityY;
+        if (handlePlatforms(platforms)) {
+            velocityY = 0;
+        }
+        draw();
+    }
+
+    /**
+     * Moves Chasing Monkey one frame closer to Mario.
+     *
+     * @param mario Mario object in the game.
+     * @param graph The floors and ladders of the level, already following Mario.
+     */
+    public void chase(Mario mario, PlatformGraph graph) {
+        previousX = x;
+        previousY = y;
+        if (destroyed) return;
+
+        // 1) Climb towards the next floor, stepping off at its surface
+        if (climbing) {
+            climb(graph);
+        }
+        // 2) Fall until landing on the floor below
+        else if (floor < 0) {
+            fall(graph);
+        }
+        // 3) Walk towards Mario, or towards the ladder that leads to his floor
+        else {
+            walk(mario, graph);
+        }
+
+        updateSprite();
+        draw();
+    }
+
+    private void climb(PlatformGraph graph) {
+        double feet = getFeet();
+        double target = graph.getFloorTop(climbFloor);
+        if (Math.abs(target - feet) <= CLIMB_SPEED) {
+            y += target - feet;
+            floor = climbFloor;
+            climbing = false;
+        } else {
+            y += target < feet ? -CLIMB_SPEED : CLIMB_SPEED;
+        }
+    }
+
+    private void fall(PlatformGraph graph) {
+        int below = graph.floorBelow(x, getFeet());
+        velocityY += Physics.MONKEY_GRAVITY;
+        y += velocityY;
+        if (below >= 0 && getFeet() >= graph.getFloorTop(below)) {
+            y += graph.getFloorTop(below) - getFeet();
+            velocityY = 0;
+            floor = below;
+        }
+    }
+
+    private void walk(Mario mario, PlatformGraph graph) {
+        int link = graph.getNextLink(floor);
+        double goal = link < 0 ? mario.getX() : graph.getLinkX(link);
+
+        // Take the ladder once standing at it
+        if (link >= 0 && Math.abs(goal - x) <= SPEED) {
+            x = goal;
+            climbFloor = graph.getOtherFloor(link, floor);
+            floor = -1;
+            climbing = true;
+            return;
+        }
+
+        // Walk towards the goal without leaving the floor
+        if (Math.abs(goal - x) > SPEED) {
+            movingRight = goal > x;
+            double halfWidth = sprite.getWidth() / 2;
+            double next = x + (movingRight ? SPEED : -SPEED);
+            x = Math.max(graph.getFloorLeft(floor) + halfWidth, Math.min(next, graph.getFloorRight(floor) - halfWidth));
+        }
+    }
+
+    private double getFeet() {
+        return y + sprite.getHeight() / 2;
+    }
+
+    /**
+     * Writes the monkey's state, the floor it walks on and where it is climbing, for saving the game.
+     * Floors are numbered by the {@link PlatformGraph}, which is the same for every screen of a level.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        out.writeInt(floor);
+        out.writeBoolean(climbing);
+        out.writeInt(climbFloor);
+    }
+
+    /**
+     * Restores the monkey from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        floor = in.readInt();
+        climbing = in.readBoolean();
+        climbFloor = in.readInt();
+        if (floor < -1 || (climbing && climbFloor < 0)) {
+            throw new IOException("Saved chasing monkey is on floor " + floor + " climbing to " + climbFloor);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+
+/**
+ * Saves the game in progress so it can be resumed after a crash or power cut.
+ * A checkpoint holds the score carried into the current level, the total of every finished level,
+ * and the saved state of the gameplay screen:
+ * <pre>
+ *   int    magic ("DKCP"), int format version
+ *   int    carried score
+ *   int    number of finished levels, then each level's total score
+ *   int    state length, state bytes
+ *   long   CRC32 of everything before it
+ * </pre>
+ * Each checkpoint is written to a temporary file and then renamed over the previous one, so a crash
+ * while writing leaves the previous checkpoint in place. Writing happens on a background thread; if
+ * the game saves faster than the disk keeps up, only the newest waiting checkpoint is written.
+ */
+public class Checkpoints {
+    private static final int MAGIC = 0x444B4350;   // "DKCP"
+    private static final int VERSION = 1;
+    private static final String FILE_NAME = "checkpoint.dat";
+    private static final String TEMP_NAME = "checkpoint.tmp";
+
+    /**
+     * A saved game in progress.
+     */
+    public static class Checkpoint {
+        private final int carriedScore;
+        private final int[] levelTotalScores;
+        private final byte[] state;
+
+        /**
+         * Constructs a checkpoint.
+         *
+         * @param carriedScore     The score carried into the current level.
+         * @param levelTotalScores The total score of each finished level.
+         * @param state            The saved state of the gameplay screen.
+         */
+        public Checkpoint(int carriedScore, int[] levelTotalScores, byte[] state) {
+            this.carriedScore = carriedScore;
+            this.levelTotalScores = levelTotalScores;
+            this.state = state;
+        }
+
+        /**
+         * Retrieves the score carried into the current level.
+         * @return The score carried into the current level.
+         */
+        public int getCarriedScore() { return carriedScore; }
+
+        /**
+         * Retrieves the total score of each finished level.
+         * @return The total score of each finished level.
+         */
+        public int[] getLevelTotalScores() { return levelTotalScores.clone(); }
+
+        /**
+         * Retrieves the saved state of the gameplay screen.
+         * @return The saved state of the gameplay screen.
+         */
+        public byte[] getState() { return state; }
+    }
+
+    private final Path FILE;
+    private final Path TEMP_FILE;
+    private final ExecutorService WRITER;
+    private final AtomicReference<Checkpoint> PENDING = new AtomicReference<>();   // Newest checkpoint not yet written
+
+    /**
+     * Uses the checkpoint stored in a directory, creating the directory if needed.
+     *
+     * @param directory The directory holding the checkpoint file.
+     */
+    public Checkpoints(Path directory) {
+        this.FILE = directory.resolve(FILE_NAME);
+        this.TEMP_FILE = directory.resolve(TEMP_NAME);
+        this.WRITER = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            System.err.println("Checkpoints unavailable: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Reads the saved checkpoint.
+     *
+     * @return The checkpoint, or {@code null} if there is none or it is damaged.
+     */
+    public Checkpoint load() {
+        if (!Files.exists(FILE)) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(FILE));
+            int length = buffer.limit() - Long.BYTES;
+            if (length < 4 * Integer.BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("not a checkpoint");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array(), 0, length);
+            if (crc.getValue() != buffer.getLong(length)) {
+                throw new IOException("checksum mismatch");
+            }
+
+            int carriedScore = buffer.getInt();
+            int[] levelTotalScores = new int[buffer.getInt()];
+            for (int i = 0; i < levelTotalScores.length; i++) {
+                levelTotalScores[i] = buffer.getInt();
+            }
+            byte[] state = new byte[buffer.getInt()];
+            buffer.get(state);
+            return new Checkpoint(carriedScore, levelTotalScores, state);
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Ignoring checkpoint " + FILE + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves a checkpoint in the background, replacing the previous one.
+     *
+     * @param checkpoint The checkpoint to save.
+     */
+    public void save(Checkpoint checkpoint) {
+        // Only schedule a write if none is waiting; a waiting write picks up the newest checkpoint
+        if (PENDING.getAndSet(checkpoint) == null) {
+            WRITER.submit(() -> {
+                Checkpoint newest = PENDING.getAndSet(null);
+                if (newest != null) {
+                    write(newest);
+                }
+            });
+        }
+    }
+
+    /**
+     * Removes the checkpoint once the game is over, after any waiting write.
+     */
+    public void clear() {
+        PENDING.set(null);
+        WRITER.submit(() -> {
+            try {
+                Files.deleteIfExists(FILE);
+            } catch (IOException ex) {
+                System.err.println("Could not remove checkpoint: " + ex.getMessage());
+            }
+        });
+    }
+
+    /** Replaces the checkpoint file in one step, so a crash leaves either the old or the new checkpoint. */
+    private void write(Checkpoint checkpoint) {
+        int size = 5 * Integer.BYTES + checkpoint.levelTotalScores.length * Integer.BYTES
+                + checkpoint.state.length + Long.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(checkpoint.carriedScore);
+        buffer.putInt(checkpoint.levelTotalScores.length);
+        for (int levelTotal : checkpoint.levelTotalScores) {
+            buffer.putInt(levelTotal);
+        }
+        buffer.putInt(checkpoint.state.length).put(checkpoint.state);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+
+        try {
+            // 1) Put the new checkpoint on the disk before it takes the old one's name,
+            //    so a power cut cannot leave the name pointing at blocks that were never written
+            buffer.flip();
+            try (FileChannel channel = FileChannel.open(TEMP_FILE, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+
+            // 2) Swap it in, then make the rename itself survive a power cut
+            Files.move(TEMP_FILE, FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(FILE.toAbsolutePath().getParent());
+        } catch (IOException ex) {
+            System.err.println("Could not save checkpoint: " + ex.getMessage());
+        }
+    }
+
+    /** Flushes a directory's entries to disk; some systems, such as Windows, cannot open a directory and skip it. */
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // The rename is still atomic, only not yet durable
+        }
+    }
+}
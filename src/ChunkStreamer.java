@@ -0,0 +1,416 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Splits a tall level into horizontal bands (chunks) and keeps only the chunks near Mario alive.
+ * Platforms, ladders, barrels and monkeys are only created from the level definition when their
+ * chunk first comes near Mario. Chunks Mario has left are packed into a compact byte form and turned
+ * back into game objects when he comes close again, so memory, load time and the work done each frame
+ * depend on the chunks around Mario rather than on the height of the level.
+ */
+public class ChunkStreamer {
+    private static final int ACTIVE_RADIUS = 1;      // Chunks above and below Mario's chunk that stay alive
+
+    private final LevelData DATA;
+    private final double CHUNK_HEIGHT;
+
+    // Live game objects of each active chunk, keyed by chunk index
+    private final Map<Integer, Chunk> active = new TreeMap<>();
+    // Packed game objects of each dormant chunk, keyed by chunk index
+    private final Map<Integer, byte[]> dormant = new HashMap<>();
+    // Objects of the level definition in each chunk that has never been near Mario, keyed by chunk index
+    private final Map<Integer, Band> unbuilt = new HashMap<>();
+
+    private int centreChunk;
+
+    // Game objects of all active chunks, handed to the gameplay screen
+    private Platform[] platforms;
+    private Ladder[] ladders;
+    private Barrel[] barrels;
+    private Monkey[] monkeys;
+
+    /**
+     * Game objects that belong to one chunk.
+     */
+    private static class Chunk {
+        private final List<Platform> platforms = new ArrayList<>();
+        private final List<Ladder> ladders = new ArrayList<>();
+        private final List<Barrel> barrels = new ArrayList<>();
+        private final List<Monkey> monkeys = new ArrayList<>();
+    }
+
+    /**
+     * Indexes into the level definition of the objects that start in one chunk.
+     */
+    private static class Band {
+        private final List<Integer> platforms = new ArrayList<>();
+        private final List<Integer> ladders = new ArrayList<>();
+        private final List<Integer> barrels = new ArrayList<>();
+        private final List<Integer> monkeys = new ArrayList<>();
+    }
+
+    /**
+     * Sorts the objects of a level definition into chunks and creates only those of the chunks near Mario.
+     *
+     * @param data        The level definition.
+     * @param chunkHeight Height of a chunk in pixels.
+     * @param marioY      Mario's starting y-coordinate.
+     */
+    public ChunkStreamer(LevelData data, double chunkHeight, double marioY) {
+        this.DATA = data;
+        this.CHUNK_HEIGHT = chunkHeight;
+        this.centreChunk = chunkOf(marioY);
+
+        for (Map.Entry<Integer, Band> entry : bandsOf(data).entrySet()) {
+            if (isNearMario(entry.getKey())) {
+                active.put(entry.getKey(), build(entry.getValue()));
+            } else {
+                unbuilt.put(entry.getKey(), entry.getValue());
+            }
+        }
+        collectActive();
+    }
+
+    /**
+     * Loads and unloads chunks when Mario moves into a different chunk.
+     *
+     * @param marioY Mario's current y-coordinate.
+     * @return {@code true} if the active game objects changed, {@code false} otherwise.
+     */
+    public boolean update(double marioY) {
+        int newCentre = chunkOf(marioY);
+        if (newCentre == centreChunk) {
+            return false;
+        }
+        centreChunk = newCentre;
+
+        // 1) Pack away chunks that are now far from Mario, re-sorting objects that moved
+        Map<Integer, Chunk> leaving = new HashMap<>();
+        List<Integer> indexes = new ArrayList<>(active.keySet());
+        for (int index : indexes) {
+            if (!isNearMario(index)) {
+                regroup(active.remove(index), leaving);
+            }
+        }
+        for (Map.Entry<Integer, Chunk> entry : leaving.entrySet()) {
+            Chunk target = active.get(entry.getKey());
+            if (target != null) {
+                merge(entry.getValue(), target);
+            } else {
+                byte[] packed = dormant.remove(entry.getKey());
+                Chunk chunk = packed == null ? entry.getValue() : merge(entry.getValue(), unpack(packed));
+                dormant.put(entry.getKey(), packDormant(chunk));
+            }
+        }
+
+        // 2) Bring back chunks that are now near Mario, creating the objects of those never seen before
+        //    ahead of any that have since moved into them
+        for (int index = centreChunk - ACTIVE_RADIUS; index <= centreChunk + ACTIVE_RADIUS; index++) {
+            Band band = unbuilt.remove(index);
+            byte[] packed = dormant.remove(index);
+            if (band != null || packed != null) {
+                Chunk chunk = band != null ? build(band) : new Chunk();
+                active.put(index, packed != null ? merge(unpack(packed), chunk) : chunk);
+            }
+        }
+        collectActive();
+        return true;
+    }
+
+    /**
+     * Retrieves the platforms of all active chunks.
+     * @return An array of active platforms.
+     */
+    public Platform[] getPlatforms() { return platforms; }
+
+    /**
+     * Retrieves the ladders of all active chunks.
+     * @return An array of active ladders.
+     */
+    public Ladder[] getLadders() { return ladders; }
+
+    /**
+     * Retrieves the barrels of all active chunks.
+     * @return An array of active barrels.
+     */
+    public Barrel[] getBarrels() { return barrels; }
+
+    /**
+     * Retrieves the monkeys of all active chunks.
+     * @return An array of active monkeys.
+     */
+    public Monkey[] getMonkeys() { return monkeys; }
+
+    /**
+     * Retrieves the definition of the level being streamed.
+     * @return The level definition.
+     */
+    public LevelData getLevelData() { return DATA; }
+
+    /**
+     * Writes every chunk, active or dormant, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeInt(centreChunk);
+        out.writeInt(active.size());
+        for (Map.Entry<Integer, Chunk> entry : active.entrySet()) {
+            out.writeInt(entry.getKey());
+            byte[] packed = pack(entry.getValue());
+            out.writeInt(packed.length);
+            out.write(packed);
+        }
+        // Dormant chunks are written in index order so equal games give equal bytes
+        Map<Integer, byte[]> sortedDormant = new TreeMap<>(dormant);
+        out.writeInt(sortedDormant.size());
+        for (Map.Entry<Integer, byte[]> entry : sortedDormant.entrySet()) {
+            out.writeInt(entry.getKey());
+            out.writeInt(entry.getValue().length);
+            out.write(entry.getValue());
+        }
+        // Chunks never near Mario are created again from the level definition, so only their indexes are kept
+        Set<Integer> sortedUnbuilt = new TreeSet<>(unbuilt.keySet());
+        out.writeInt(sortedUnbuilt.size());
+        for (int index : sortedUnbuilt) {
+            out.writeInt(index);
+        }
+    }
+
+    /**
+     * Replaces every chunk with the ones written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        active.clear();
+        dormant.clear();
+        unbuilt.clear();
+        centreChunk = in.readInt();
+        int activeCount = in.readInt();
+        for (int i = 0; i < activeCount; i++) {
+            int index = in.readInt();
+            byte[] packed = new byte[in.readInt()];
+            in.readFully(packed);
+            active.put(index, unpack(packed));
+        }
+        int dormantCount = in.readInt();
+        for (int i = 0; i < dormantCount; i++) {
+            int index = in.readInt();
+            byte[] packed = new byte[in.readInt()];
+            in.readFully(packed);
+            dormant.put(index, packed);
+        }
+        Map<Integer, Band> bands = bandsOf(DATA);
+        int unbuiltCount = in.readInt();
+        for (int i = 0; i < unbuiltCount; i++) {
+            int index = in.readInt();
+            Band band = bands.get(index);
+            if (band == null) {
+                throw new IOException("Saved state refers to chunk " + index + ", which holds nothing in this level");
+            }
+            unbuilt.put(index, band);
+        }
+        collectActive();
+    }
+
+    private int chunkOf(double y) {
+        return (int) Math.floor(y / CHUNK_HEIGHT);
+    }
+
+    private boolean isNearMario(int index) {
+        return Math.abs(index - centreChunk) <= ACTIVE_RADIUS;
+    }
+
+    /** Sorts the objects of a level definition by the chunk they start in, without creating any. */
+    private Map<Integer, Band> bandsOf(LevelData data) {
+        Map<Integer, Band> bands = new HashMap<>();
+        for (int i = 0; i < data.platforms.length / 2; i++) {
+            bands.computeIfAbsent(chunkOf(data.platforms[2 * i + 1]), key -> new Band()).platforms.add(i);
+        }
+        for (int i = 0; i < data.ladders.length / 2; i++) {
+            bands.computeIfAbsent(chunkOf(data.ladders[2 * i + 1]), key -> new Band()).ladders.add(i);
+        }
+        for (int i = 0; i < data.barrels.length / 2; i++) {
+            bands.computeIfAbsent(chunkOf(data.barrels[2 * i + 1]), key -> new Band()).barrels.add(i);
+        }
+        for (int i = 0; i < data.monkeyTypes.length; i++) {
+            bands.computeIfAbsent(chunkOf(data.monkeys[2 * i + 1]), key -> new Band()).monkeys.add(i);
+        }
+        return bands;
+    }
+
+    /** Creates the game objects of a chunk that has never been near Mario. */
+    private Chunk build(Band band) {
+        Chunk chunk = new Chunk();
+        for (int i : band.platforms) {
+            chunk.platforms.add(DATA.createPlatform(i));
+        }
+        for (int i : band.ladders) {
+            chunk.ladders.add(DATA.createLadder(i));
+        }
+        for (int i : band.barrels) {
+            chunk.barrels.add(DATA.createBarrel(i));
+        }
+        for (int i : band.monkeys) {
+            chunk.monkeys.add(DATA.createMonkey(i));
+        }
+        return chunk;
+    }
+
+    /** Rebuilds the arrays handed to the gameplay screen from the active chunks. */
+    private void collectActive() {
+        List<Platform> allPlatforms = new ArrayList<>();
+        List<Ladder> allLadders = new ArrayList<>();
+        List<Barrel> allBarrels = new ArrayList<>();
+        List<Monkey> allMonkeys = new ArrayList<>();
+        for (Chunk chunk : active.values()) {
+            allPlatforms.addAll(chunk.platforms);
+            allLadders.addAll(chunk.ladders);
+            allBarrels.addAll(chunk.barrels);
+            allMonkeys.addAll(chunk.monkeys);
+        }
+        platforms = allPlatforms.toArray(new Platform[0]);
+        ladders = allLadders.toArray(new Ladder[0]);
+        barrels = allBarrels.toArray(new Barrel[0]);
+        monkeys = allMonkeys.toArray(new Monkey[0]);
+    }
+
+    /** Sorts the objects of a chunk by the chunk they are in now, since barrels and monkeys can fall. */
+    private void regroup(Chunk chunk, Map<Integer, Chunk> into) {
+        for (Platform platform : chunk.platforms) {
+            into.computeIfAbsent(chunkOf(platform.getY()), key -> new Chunk()).platforms.add(platform);
+        }
+        for (Ladder ladder : chunk.ladders) {
+            into.computeIfAbsent(chunkOf(ladder.getY()), key -> new Chunk()).ladders.add(ladder);
+        }
+        for (Barrel barrel : chunk.barrels) {
+            into.computeIfAbsent(chunkOf(barrel.getY()), key -> new Chunk()).barrels.add(barrel);
+        }
+        for (Monkey monkey : chunk.monkeys) {
+            into.computeIfAbsent(chunkOf(monkey.getY()), key -> new Chunk()).monkeys.add(monkey);
+        }
+    }
+
+    private static Chunk merge(Chunk from, Chunk into) {
+        into.platforms.addAll(from.platforms);
+        into.ladders.addAll(from.ladders);
+        into.barrels.addAll(from.barrels);
+        into.monkeys.addAll(from.monkeys);
+        return into;
+    }
+
+    /** Packs the objects of a chunk into bytes, keeping everything needed to rebuild them exactly. */
+    private static byte[] packDormant(Chunk chunk) {
+        // Dormant monkeys are not updated, so their timers wait until the chunk comes back
+        for (Monkey monkey : chunk.monkeys) {
+            monkey.stopTimers();
+        }
+        return pack(chunk);
+    }
+
+    private static byte[] pack(Chunk chunk) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(chunk.platforms.size());
+            for (Platform platform : chunk.platforms) {
+                out.writeDouble(platform.getX());
+                out.writeDouble(platform.getY());
+            }
+            out.writeInt(chunk.ladders.size());
+            for (Ladder ladder : chunk.ladders) {
+                out.writeDouble(ladder.getX());
+                ladder.writeState(out);
+            }
+            // Destroyed barrels and monkeys no longer take part in the game and are dropped
+            List<Barrel> barrels = new ArrayList<>();
+            for (Barrel barrel : chunk.barrels) {
+                if (!barrel.isDestroyed()) {
+                    barrels.add(barrel);
+                }
+            }
+            out.writeInt(barrels.size());
+            for (Barrel barrel : barrels) {
+                out.writeDouble(barrel.getX());
+                barrel.writeState(out);
+            }
+            List<Monkey> monkeys = new ArrayList<>();
+            for (Monkey monkey : chunk.monkeys) {
+                if (!monkey.isDestroyed()) {
+                    monkeys.add(monkey);
+                }
+            }
+            out.writeInt(monkeys.size());
+            for (Monkey monkey : monkeys) {
+                out.writeByte(monkey instanceof IntelligentMonkey ? LevelData.INTELLIGENT_MONKEY
+                        : monkey instanceof ChasingMonkey ? LevelData.CHASING_MONKEY : LevelData.NORMAL_MONKEY);
+                int[] route = monkey.getRoute();
+                out.writeInt(route.length);
+                for (int distance : route) {
+                    out.writeInt(distance);
+                }
+                monkey.writeState(out);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Rebuilds the game objects of a packed chunk. */
+    private static Chunk unpack(byte[] packed) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(packed))) {
+            return readChunk(in);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Chunk readChunk(DataInputStream in) throws IOException {
+        Chunk chunk = new Chunk();
+        int platformCount = in.readInt();
+        for (int i = 0; i < platformCount; i++) {
+            chunk.platforms.add(new Platform(in.readDouble(), in.readDouble()));
+        }
+        int ladderCount = in.readInt();
+        for (int i = 0; i < ladderCount; i++) {
+            Ladder ladder = new Ladder(in.readDouble(), 0);
+            ladder.readState(in);
+            chunk.ladders.add(ladder);
+        }
+        int barrelCount = in.readInt();
+        for (int i = 0; i < barrelCount; i++) {
+            Barrel barrel = new Barrel(in.readDouble(), 0);
+            barrel.readState(in);
+            chunk.barrels.add(barrel);
+        }
+        int monkeyCount = in.readInt();
+        for (int i = 0; i < monkeyCount; i++) {
+            byte type = in.readByte();
+            int[] route = new int[in.readInt()];
+            for (int j = 0; j < route.length; j++) {
+                route[j] = in.readInt();
+            }
+            // Position and direction are part of the saved state
+            Monkey monkey = (type == LevelData.INTELLIGENT_MONKEY) ? new IntelligentMonkey(0, 0, "right", route)
+                    : (type == LevelData.CHASING_MONKEY) ? new ChasingMonkey(0, 0, "right")
+                    : new NormalMonkey(0, 0, "right", route);
+            monkey.readState(in);
+            chunk.monkeys.add(monkey);
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,46 @@
+import bagel.util.Rectangle;
+
+/**
+ * An interface for game objects that take part in collisions.
+ * Each collider belongs to one {@link CollisionLayer}; the {@link CollisionMatrix} decides which layers
+ * are tested against each other. Objects are tested along their movement during the frame,
+ * so fast objects cannot pass through each other between two frames.
+ */
+public interface Collider {
+    /**
+     * Retrieves the bounding box used for collisions.
+     * @return The bounding box in world coordinates.
+     */
+    Rectangle getBoundingBox();
+
+    /**
+     * Retrieves the bounding box at the start of the frame, so collisions can be swept along the
+     * object's movement. Objects that do not move use their current bounding box.
+     * @return The bounding box in world coordinates at the start of the frame.
+     */
+    default Rectangle getPreviousBoundingBox() {
+        return getBoundingBox();
+    }
+
+    /**
+     * Retrieves the opaque pixels of the object's current sprite, centred on its bounding box, which
+     * decide whether two objects touch once their bounding boxes do. Objects without one, such as
+     * platforms, collide with their whole bounding box.
+     * @return The collision mask, or {@code null} to use the bounding box alone.
+     */
+    default CollisionMask getCollisionMask() {
+        return null;
+    }
+
+    /**
+     * Retrieves the layer the object collides on.
+     * @return One of the {@link CollisionLayer} constants.
+     */
+    int getCollisionLayer();
+
+    /**
+     * Checks whether the object can collide right now; destroyed or spent objects cannot.
+     * @return {@code true} if the object can collide, {@code false} otherwise.
+     */
+    boolean isCollidable();
+}
@@ -0,0 +1,187 @@
+import bagel.util.Rectangle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the colliding pairs of a frame and hands each to the handler registered for its two layers.
+ * Pairs are swept along both objects' movement during the frame (see {@link Sweep}), so a bullet
+ * cannot skip over a monkey however far it moves in one frame. Once two boxes meet, colliders with a
+ * {@link CollisionMask} are also compared pixel by pixel, so Mario only dies to a barrel he really touched.
+ * Colliders are sorted into one bucket per layer, and only buckets whose layers interact in the
+ * {@link CollisionMatrix} are tested against each other, so pairs such as a banana and a barrel are never formed.
+ * Handlers run in the order they were registered, so earlier rules win when an object could be used up
+ * by several, as when a bullet touches a platform and a monkey in the same frame.
+ */
+public class CollisionDispatcher {
+    /**
+     * Reacts to two colliders touching.
+     *
+     * @param <A> The type of the collider on the first layer.
+     * @param <B> The type of the collider on the second layer.
+     */
+    public interface Handler<A extends Collider, B extends Collider> {
+        void onCollision(A a, B b);
+    }
+
+    private static class Rule {
+        private final int layerA;
+        private final int layerB;
+        private final Handler<Collider, Collider> handler;
+
+        private Rule(int layerA, int layerB, Handler<Collider, Collider> handler) {
+            this.layerA = layerA;
+            this.layerB = layerB;
+            this.handler = handler;
+        }
+    }
+
+    private final CollisionMatrix MATRIX;
+    private final List<Rule> RULES = new ArrayList<>();
+    private final List<List<Collider>> BUCKETS = new ArrayList<>();   // Colliders of this frame, by layer
+
+    /**
+     * Constructs a dispatcher for the layers of a matrix.
+     *
+     * @param matrix Which layers interact.
+     */
+    public CollisionDispatcher(CollisionMatrix matrix) {
+        this.MATRIX = matrix;
+        for (int layer = 0; layer < CollisionLayer.COUNT; layer++) {
+            BUCKETS.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Registers what happens when a collider of one layer touches a collider of another.
+     *
+     * @param layerA  The layer of the first collider passed to the handler.
+     * @param layerB  The layer of the second collider passed to the handler.
+     * @param handler The reaction to the collision.
+     * @param <A>     The type of the colliders on the first layer.
+     * @param <B>     The type of the colliders on the second layer.
+     * @throws IllegalArgumentException if the matrix does not let the layers interact.
+     */
+    @SuppressWarnings("unchecked")
+    public <A extends Collider, B extends Collider> void on(int layerA, int layerB, Handler<A, B> handler) {
+        if (!MATRIX.interacts(layerA, layerB)) {
+            throw new IllegalArgumentException("Layers " + layerA + " and " + layerB + " do not interact");
+        }
+        RULES.add(new Rule(layerA, layerB, (Handler<Collider, Collider>) handler));
+    }
+
+    /**
+     * Empties every layer, ready for the colliders of a new frame.
+     */
+    public void clear() {
+        for (List<Collider> bucket : BUCKETS) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Adds a collider for this frame.
+     *
+     * @param collider The collider, or {@code null} to skip.
+     */
+    public void add(Collider collider) {
+        if (collider != null && collider.isCollidable()) {
+            BUCKETS.get(collider.getCollisionLayer()).add(collider);
+        }
+    }
+
+    /**
+     * Adds colliders for this frame.
+     *
+     * @param colliders The colliders, or {@code null} to skip.
+     */
+    public void addAll(Iterable<? extends Collider> colliders) {
+        if (colliders != null) {
+            for (Collider collider : colliders) {
+                add(collider);
+            }
+        }
+    }
+
+    /**
+     * Adds colliders for this frame.
+     *
+     * @param colliders The colliders, or {@code null} to skip.
+     */
+    public void addAll(Collider[] colliders) {
+        if (colliders != null) {
+            for (Collider collider : colliders) {
+                add(collider);
+            }
+        }
+    }
+
+    /**
+     * Tests every pair of layers with a rule and calls the rule's handler for each touching pair.
+     * Colliders used up by a handler, such as a destroyed monkey, are skipped from then on.
+     */
+    public void dispatch() {
+        for (Rule rule : RULES) {
+            List<Collider> first = BUCKETS.get(rule.layerA);
+            List<Collider> second = BUCKETS.get(rule.layerB);
+            if (first.isEmpty() || second.isEmpty()) {
+                continue;
+            }
+            for (Collider a : first) {
+                if (!a.isCollidable()) {
+                    continue;
+                }
+                Rectangle fromA = a.getPreviousBoundingBox();
+                Rectangle toA = a.getBoundingBox();
+                for (Collider b : second) {
+                    if (b.isCollidable() && touches(a, fromA, toA, b)) {
+                        rule.handler.onCollision(a, b);
+                        if (!a.isCollidable()) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether two colliders touch during the frame. Their swept boxes are tested first, and only
+     * if those meet and both colliders have a mask are the masks compared, at each pixel of movement
+     * from the moment the boxes meet to the end of the frame.
+     */
+    private static boolean touches(Collider a, Rectangle fromA, Rectangle toA, Collider b) {
+        Rectangle fromB = b.getPreviousBoundingBox();
+        Rectangle toB = b.getBoundingBox();
+        double time = Sweep.timeOfImpact(fromA, toA, fromB, toB);
+        if (Double.isNaN(time)) {
+            return false;
+        }
+        CollisionMask maskA = a.getCollisionMask();
+        CollisionMask maskB = b.getCollisionMask();
+        if (maskA == null || maskB == null) {
+            return true;
+        }
+
+        // Where the objects end up is the likeliest place to touch, so test it first and work back
+        double dx = (toA.left() - fromA.left()) - (toB.left() - fromB.left());
+        double dy = (toA.top() - fromA.top()) - (toB.top() - fromB.top());
+        int steps = (int) Math.ceil(Math.max(Math.abs(dx), Math.abs(dy)) * (1 - time));
+        for (int i = steps; i >= 0; i--) {
+            double t = steps == 0 ? 1 : time + (1 - time) * i / steps;
+            if (CollisionMask.overlaps(maskA, centreX(fromA, toA, t), centreY(fromA, toA, t),
+                    maskB, centreX(fromB, toB, t), centreY(fromB, toB, t))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double centreX(Rectangle from, Rectangle to, double t) {
+        return from.left() + (to.left() - from.left()) * t + (to.right() - to.left()) / 2;
+    }
+
+    private static double centreY(Rectangle from, Rectangle to, double t) {
+        return from.top() + (to.top() - from.top()) * t + (to.bottom() - to.top()) / 2;
+    }
+}
@@ -0,0 +1,26 @@
+/**
+ * The collision layers game objects belong to.
+ * A new kind of game object either joins an existing layer or adds a layer here and declares
+ * what it interacts with in the {@link CollisionMatrix}.
+ */
+public final class CollisionLayer {
+    /** Mario. */
+    public static final int MARIO = 0;
+    /** Donkey. */
+    public static final int DONKEY = 1;
+    /** Barrels. */
+    public static final int BARREL = 2;
+    /** Normal and intelligent monkeys. */
+    public static final int MONKEY = 3;
+    /** Bullets fired by Mario. */
+    public static final int BULLET = 4;
+    /** Bananas thrown by intelligent monkeys. */
+    public static final int BANANA = 5;
+    /** Platforms. */
+    public static final int PLATFORM = 6;
+    /** The number of layers. */
+    public static final int COUNT = 7;
+
+    private CollisionLayer() {
+    }
+}
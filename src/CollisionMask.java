@@ -0,0 +1,113 @@
+import java.awt.image.BufferedImage;
+
+/**
+ * The opaque pixels of a sprite, for telling whether two sprites really touch once their bounding boxes do.
+ * Each row is packed into 64-bit words, one bit per pixel with the leftmost pixel in the lowest bit,
+ * so two rows are compared 64 pixels at a time with a shift and an AND.
+ * Masks are built once per image by {@link AssetLoader#getMask} and shared like the images themselves.
+ */
+public final class CollisionMask {
+    private static final int ALPHA_THRESHOLD = 128;   // Pixels at least this opaque are solid
+
+    private final int WIDTH;
+    private final int HEIGHT;
+    private final int WORDS;      // Words per row
+    private final long[] BITS;    // Rows one after another, WORDS words each
+
+    private CollisionMask(int width, int height) {
+        this.WIDTH = width;
+        this.HEIGHT = height;
+        this.WORDS = (width + 63) >>> 6;
+        this.BITS = new long[WORDS * height];
+    }
+
+    /**
+     * Builds the mask of an image from its alpha channel.
+     *
+     * @param image The decoded image.
+     * @return The mask of the image's opaque pixels.
+     */
+    public static CollisionMask fromImage(BufferedImage image) {
+        CollisionMask mask = new CollisionMask(image.getWidth(), image.getHeight());
+        for (int row = 0; row < mask.HEIGHT; row++) {
+            for (int column = 0; column < mask.WIDTH; column++) {
+                if ((image.getRGB(column, row) >>> 24) >= ALPHA_THRESHOLD) {
+                    mask.BITS[row * mask.WORDS + (column >>> 6)] |= 1L << (column & 63);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Checks whether two masks share a solid pixel when each is centred on a point.
+     * Sprites are drawn centred on their position, so the masks are placed the same way.
+     *
+     * @param a  The first mask.
+     * @param ax The x-coordinate of the first mask's centre.
+     * @param ay The y-coordinate of the first mask's centre.
+     * @param b  The second mask.
+     * @param bx The x-coordinate of the second mask's centre.
+     * @param by The y-coordinate of the second mask's centre.
+     * @return {@code true} if a solid pixel of one covers a solid pixel of the other, {@code false} otherwise.
+     */
+    public static boolean overlaps(CollisionMask a, double ax, double ay, CollisionMask b, double bx, double by) {
+        // 1) Place both masks on whole pixels, measuring B's corner from A's
+        int offsetX = (int) Math.round(bx - b.WIDTH / 2.0) - (int) Math.round(ax - a.WIDTH / 2.0);
+        int offsetY = (int) Math.round(by - b.HEIGHT / 2.0) - (int) Math.round(ay - a.HEIGHT / 2.0);
+
+        // 2) Find the rows and columns of A that B covers
+        int top = Math.max(0, offsetY);
+        int bottom = Math.min(a.HEIGHT, offsetY + b.HEIGHT);
+        int left = Math.max(0, offsetX);
+        int right = Math.min(a.WIDTH, offsetX + b.WIDTH);
+        if (top >= bottom || left >= right) {
+            return false;
+        }
+
+        // 3) AND each word of A with the 64 pixels of B under it; bits outside either mask are clear
+        int firstWord = left >>> 6;
+        int lastWord = (right - 1) >>> 6;
+        for (int row = top; row < bottom; row++) {
+            int rowA = row * a.WORDS;
+            int rowB = (row - offsetY) * b.WORDS;
+            for (int word = firstWord; word <= lastWord; word++) {
+                if ((a.BITS[rowA + word] & b.wordAt(rowB, (word << 6) - offsetX)) != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Reads 64 pixels of a row of this mask starting at a column, which may lie outside the mask. */
+    private long wordAt(int rowStart, int column) {
+        int word = Math.floorDiv(column, 64);
+        int shift = Math.floorMod(column, 64);
+        long low = word(rowStart, word);
+        if (shift == 0) {
+            return low;
+        }
+        return (low >>> shift) | (word(rowStart, word + 1) << (64 - shift));
+    }
+
+    private long word(int rowStart, int word) {
+        return word >= 0 && word < WORDS ? BITS[rowStart + word] : 0L;
+    }
+
+    /**
+     * Retrieves the width of the mask.
+     * @return The width in pixels.
+     */
+    public int getWidth() {
+        return WIDTH;
+    }
+
+    /**
+     * Retrieves the height of the mask.
+     * @return The height in pixels.
+     */
+    public int getHeight() {
+        return HEIGHT;
+    }
+}
@@ -0,0 +1,31 @@
+/**
+ * Declares which collision layers interact. Interaction is symmetric; layers that are not declared
+ * never have their objects tested against each other.
+ */
+public class CollisionMatrix {
+    private final int[] MASKS = new int[CollisionLayer.COUNT];   // Bit b of MASKS[a] is set if a and b interact
+
+    /**
+     * Declares that two layers interact.
+     *
+     * @param layerA One layer.
+     * @param layerB The other layer.
+     * @return This matrix, so declarations can be chained.
+     */
+    public CollisionMatrix allow(int layerA, int layerB) {
+        MASKS[layerA] |= 1 << layerB;
+        MASKS[layerB] |= 1 << layerA;
+        return this;
+    }
+
+    /**
+     * Checks whether two layers interact.
+     *
+     * @param layerA One layer.
+     * @param layerB The other layer.
+     * @return {@code true} if the layers interact, {@code false} otherwise.
+     */
+    public boolean interacts(int layerA, int layerB) {
+        return (MASKS[layerA] & (1 << layerB)) != 0;
+    }
+}
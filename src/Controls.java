@@ -0,0 +1,111 @@
+import bagel.Input;
+import bagel.Keys;
+
+/**
+ * The player's controls for one frame, packed into a bitmask.
+ * Gameplay reads the controls rather than the keyboard, so a frame can be replayed
+ * exactly from the stored mask.
+ */
+public class Controls {
+    /** LEFT is held. */
+    public static final int LEFT = 1;
+    /** RIGHT is held. */
+    public static final int RIGHT = 1 << 1;
+    /** UP is held. */
+    public static final int UP = 1 << 2;
+    /** DOWN is held. */
+    public static final int DOWN = 1 << 3;
+    /** SPACE was pressed this frame. */
+    public static final int JUMP = 1 << 4;
+    /** S was pressed this frame. */
+    public static final int SHOOT = 1 << 5;
+
+    private final int mask;
+
+    /**
+     * Constructs the controls from a stored bitmask.
+     *
+     * @param mask The bitmask of controls.
+     */
+    public Controls(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Reads the controls of this frame from the keyboard.
+     *
+     * @param input The current mouse/keyboard input.
+     * @return The controls of this frame.
+     */
+    public static Controls read(Input input) {
+        int mask = 0;
+        if (input.isDown(Keys.LEFT)) {
+            mask |= LEFT;
+        }
+        if (input.isDown(Keys.RIGHT)) {
+            mask |= RIGHT;
+        }
+        if (input.isDown(Keys.UP)) {
+            mask |= UP;
+        }
+        if (input.isDown(Keys.DOWN)) {
+            mask |= DOWN;
+        }
+        if (input.wasPressed(Keys.SPACE)) {
+            mask |= JUMP;
+        }
+        if (input.wasPressed(Keys.S)) {
+            mask |= SHOOT;
+        }
+        return new Controls(mask);
+    }
+
+    /**
+     * Retrieves the controls that stay active while a key is held, without the presses.
+     * Used for the extra ticks of a frame when the game runs faster than real time,
+     * so a single press jumps or shoots only once.
+     *
+     * @return The held controls of this frame.
+     */
+    public Controls held() {
+        return new Controls(mask & (LEFT | RIGHT | UP | DOWN));
+    }
+
+    /**
+     * Retrieves only the presses of this frame, without the held controls.
+     * Used to keep a press made on a frame that plays no tick, in slow motion, for the next tick played.
+     *
+     * @return The bitmask of presses.
+     */
+    public int getPresses() {
+        return mask & (JUMP | SHOOT);
+    }
+
+    /**
+     * Retrieves these controls with presses from earlier frames added.
+     *
+     * @param presses The bitmask of presses to add.
+     * @return The combined controls.
+     */
+    public Controls withPresses(int presses) {
+        return new Controls(mask | presses);
+    }
+
+    /**
+     * Checks whether a control is active this frame.
+     *
+     * @param control One of the control constants.
+     * @return {@code true} if the control is active, {@code false} otherwise.
+     */
+    public boolean has(int control) {
+        return (mask & control) != 0;
+    }
+
+    /**
+     * Retrieves the bitmask of controls.
+     * @return The bitmask of controls.
+     */
+    public int getMask() {
+        return mask;
+    }
+}
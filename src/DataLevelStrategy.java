@@ -0,0 +1,116 @@
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Strategy class for initializing the game objects of any level from its level definition.
+ * Implements the {@link GameLevelStrategy} interface to configure Mario, Donkey, barrels,
+ * ladders, platforms, hammers, blasters and monkeys.
+ * Each level is parsed once and kept, so restarting or replaying it only creates fresh game objects.
+ */
+public class DataLevelStrategy implements GameLevelStrategy {
+    // Parsed level definitions, shared by every screen and the background level builder
+    private static final Map<Integer, LevelData> LEVEL_CACHE = new ConcurrentHashMap<>();
+
+    private final int level;   // Game level to be created
+
+    /**
+     * Constructs the strategy for one level.
+     *
+     * @param level The level to initialize.
+     */
+    public DataLevelStrategy(int level) {
+        this.level = level;
+    }
+
+    /**
+     * Returns the definition of a level, parsing it only the first time it is asked for.
+     *
+     * @param props The game properties containing the level definitions.
+     * @param level The level number.
+     * @return The cached level definition.
+     */
+    public static LevelData getLevelData(Properties props, int level) {
+        return LEVEL_CACHE.computeIfAbsent(level, key -> LevelData.load(props, key));
+    }
+
+    /**
+     * Replaces the cached definition of a level with a newly loaded one.
+     *
+     * @param data The new level definition.
+     * @return {@code true} if the level was already cached and has changed, {@code false} otherwise.
+     */
+    public static boolean replaceLevelData(LevelData data) {
+        LevelData previous = LEVEL_CACHE.put(data.getLevel(), data);
+        return previous != null && !previous.equals(data);
+    }
+
+    /**
+     * Initializes all game objects of the level from its cached definition.
+     *
+     * @param screen The {@link GamePlayScreen} where all game elements will be placed.
+     */
+    @Override
+    public void initialize(GamePlayScreen screen) {
+        LevelData data = getLevelData(screen.getConfig().getLevelProperties(), level);
+
+        // 1) Create Mario
+        screen.setMario(new Mario(data.marioX, data.marioY));
+
+        // 2) Create Donkey
+        screen.setDonkey(new Donkey(data.donkeyX, data.donkeyY, data.donkeySettled));
+
+        // 3) Tall levels only create the platforms, ladders, barrels and monkeys of the chunks around Mario
+        boolean streamed = data.worldWidth > 0 && data.worldHeight > ShadowDonkeyKong.getScreenHeight();
+        if (streamed) {
+            screen.setChunkStreamer(new ChunkStreamer(data, screen.getConfig().getChunkHeight(), data.marioY));
+        } else {
+            // 3.1) Create the Barrels array
+            Barrel[] barrels = new Barrel[data.barrels.length / 2];
+            for (int i = 0; i < barrels.length; i++) {
+                barrels[i] = data.createBarrel(i);
+            }
+            screen.setBarrels(barrels);
+
+            // 3.2) Create the Ladders array
+            Ladder[] ladders = new Ladder[data.ladders.length / 2];
+            for (int i = 0; i < ladders.length; i++) {
+                ladders[i] = data.createLadder(i);
+            }
+            screen.setLadders(ladders);
+
+            // 3.3) Create the Platforms array
+            Platform[] platforms = new Platform[data.platforms.length / 2];
+            for (int i = 0; i < platforms.length; i++) {
+                platforms[i] = data.createPlatform(i);
+            }
+            screen.setPlatforms(platforms);
+
+            // 3.4) Create Monkeys (Normal + Intelligent + Chasing) in one Monkey[]
+            Monkey[] monkeys = new Monkey[data.monkeyTypes.length];
+            for (int i = 0; i < monkeys.length; i++) {
+                monkeys[i] = data.createMonkey(i);
+            }
+            screen.setMonkeys(monkeys);
+        }
+
+        // 4) Create Hammers
+        Hammer[] hammers = new Hammer[data.hammers.length / 2];
+        for (int i = 0; i < hammers.length; i++) {
+            hammers[i] = new Hammer(data.hammers[2 * i], data.hammers[2 * i + 1]);
+        }
+        screen.setHammer(hammers);
+
+        // 5) Create Blasters
+        Blaster[] blasters = new Blaster[data.blasters.length / 2];
+        for (int i = 0; i < blasters.length; i++) {
+            blasters[i] = new Blaster(data.blasters[2 * i], data.blasters[2 * i + 1]);
+        }
+        screen.setBlaster(blasters);
+
+        // 6) World size is optional and defaults to the window size
+        if (data.worldWidth > 0 && data.worldHeight > 0) {
+            screen.setWorldSize(data.worldWidth, data.worldHeight);
+        }
+    }
+}
@@ -2,15 +2,20 @@ import bagel.*;
 import bagel.util.Colour;
 import bagel.util.Rectangle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Represents Donkey Kong in the game, affected by gravity and platform collisions.
  * The Donkey object moves downward due to gravity and lands on platforms when applicable.
  */
-public class Donkey {
+public class Donkey implements Collider {
     private final Image DONKEY_IMAGE;
     private final double X;         // constant because x does not change, only relying on falling
     private double y;
     private double velocityY = 0;   // Initial vertical velocity is 0
+    private boolean isSettled;      // Whether Donkey rests on a platform and no longer moves
 
     /**
      * Constructs a new Donkey at the specified starting position.
@@ -19,18 +24,36 @@ public class Donkey {
      * @param startY The initial y-coordinate of Donkey.
      */
     public Donkey(double startX, double startY) {
-        this.DONKEY_IMAGE = new Image("res/donkey_kong.png"); // Load Donkey Kong sprite
+        this(startX, startY, false);
+    }
+
+    /**
+     * Constructs a new Donkey at the specified starting position, which may already be his resting position.
+     *
+     * @param startX  The initial x-coordinate of Donkey.
+     * @param startY  The initial y-coordinate of Donkey.
+     * @param settled {@code true} if Donkey already rests on a platform.
+     */
+    public Donkey(double startX, double startY, boolean settled) {
+        this.DONKEY_IMAGE = AssetLoader.getImage("res/donkey_kong.png"); // Load Donkey Kong sprite
         this.X = startX;
         this.y = startY;
+        this.isSettled = settled;
     }
 
     /**
      * Updates Donkey's position by applying gravity and checking for platform collisions.
-     * If Donkey lands on a platform, the velocity is reset to zero.
+     * If Donkey lands on a platform, the velocity is reset to zero. A settled Donkey is only drawn.
      *
      * @param platforms An array of platforms Donkey can land on.
      */
     public void update(Platform[] platforms) {
+        if (isSettled) {
+            draw();
+            return;
+        }
+        double previousY = y;
+
         // Apply gravity
         velocityY += Physics.DONKEY_GRAVITY;
         y += velocityY;
@@ -44,6 +67,7 @@ public class Donkey {
                 // Position Donkey on top of the platform
                 y = platform.getY() - (platform.getHeight() / 2) - (DONKEY_IMAGE.getHeight() / 2);
                 velocityY = 0; // Stop downward movement
+                isSettled = (y == previousY);
                 break;
             }
         }
@@ -67,7 +91,9 @@ public class Donkey {
      * Draws Donkey on the screen.
      */
     public void draw() {
-        DONKEY_IMAGE.draw(X, y);
+        if (Camera.isVisible(X, y, DONKEY_IMAGE.getWidth(), DONKEY_IMAGE.getHeight())) {
+            DONKEY_IMAGE.draw(Camera.toScreenX(X), Camera.toScreenY(y));
+        }
     }
 
     /**
@@ -84,4 +110,54 @@ public class Donkey {
         );
     }
 
+    /**
+     * Retrieves the opaque pixels of Donkey Kong's current sprite.
+     * @return The collision mask of the sprite.
+     */
+    @Override
+    public CollisionMask getCollisionMask() {
+        return AssetLoader.getMask(DONKEY_IMAGE);
+    }
+
+    /**
+     * Retrieves the layer this object collides on.
+     * @return {@link CollisionLayer#DONKEY}.
+     */
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayer.DONKEY;
+    }
+
+    /**
+     * Checks whether this object can collide right now. Donkey can always be hit.
+     * @return {@code true} if this object can collide, {@code false} otherwise.
+     */
+    @Override
+    public boolean isCollidable() {
+        return true;
+    }
+
+    /**
+     * Writes Donkey's fall, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(y);
+        out.writeDouble(velocityY);
+        out.writeBoolean(isSettled);
+    }
+
+    /**
+     * Restores Donkey's fall from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        y = in.readDouble();
+        velocityY = in.readDouble();
+        isSettled = in.readBoolean();
+    }
 }
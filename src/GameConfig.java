@@ -0,0 +1,383 @@
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.Properties;
+
+/**
+ * The game settings and messages, read once from res/app.properties and res/message.properties
+ * when the game starts. Every value is checked here, so a bad setting is reported at start-up
+ * with the name of the entry, and screens are created without parsing any strings.
+ */
+public class GameConfig {
+    // Window and timing
+    private final int WINDOW_WIDTH;
+    private final int WINDOW_HEIGHT;
+    private final int DISPLAY_WIDTH;        // 0 when the game is not upscaled
+    private final int DISPLAY_HEIGHT;
+    private final int MAX_FRAMES;
+    private final double CHUNK_HEIGHT;
+    private final boolean HOT_RELOAD;       // Reload levels when their files change
+    private final boolean TRACE;            // Write a per-frame trace for offline analysis
+    private final double TIME_SCALE;        // Ticks played per frame when a game starts
+
+    // Files
+    private final String FONT_FILE;
+    private final String BACKGROUND_IMAGE;
+
+    // Home screen layout and text
+    private final int TITLE_FONT_SIZE;
+    private final int TITLE_Y;
+    private final int PROMPT_FONT_SIZE;
+    private final int PROMPT_Y;
+    private final String TITLE;
+    private final String PROMPT;
+
+    // Gameplay screen layout
+    private final int SCORE_FONT_SIZE;
+    private final int SCORE_X;
+    private final int SCORE_Y;
+    private final int HEALTH_X;
+    private final int HEALTH_Y;
+
+    // Game end screen layout and text
+    private final int STATUS_FONT_SIZE;
+    private final int STATUS_Y;
+    private final int END_SCORE_FONT_SIZE;
+    private final int HIGH_SCORES_Y;
+    private final int HIGH_SCORE_COUNT;
+    private final String GAME_WON_TXT;
+    private final String GAME_LOST_TXT;
+    private final String CONTINUE_GAME_TXT;
+    private final String SCORE_MESSAGE;
+    private final String HIGH_SCORES_TXT;
+    private final String RANK_TXT;
+
+    // Level definitions, parsed per level when first needed
+    private final Properties LEVEL_PROPS;
+    private final NavigableSet<Integer> LEVELS;
+
+    /**
+     * Reads and checks every setting.
+     *
+     * @param gameProps    The contents of res/app.properties.
+     * @param messageProps The contents of res/message.properties.
+     * @throws IllegalArgumentException if a setting is missing or malformed.
+     */
+    public GameConfig(Properties gameProps, Properties messageProps) {
+        WINDOW_WIDTH = positiveInt(gameProps, "window.width");
+        WINDOW_HEIGHT = positiveInt(gameProps, "window.height");
+        DISPLAY_WIDTH = gameProps.getProperty("window.displayWidth") == null
+                ? 0 : positiveInt(gameProps, "window.displayWidth");
+        DISPLAY_HEIGHT = gameProps.getProperty("window.displayHeight") == null
+                ? 0 : positiveInt(gameProps, "window.displayHeight");
+        if ((DISPLAY_WIDTH == 0) != (DISPLAY_HEIGHT == 0)) {
+            throw new IllegalArgumentException("window.displayWidth and window.displayHeight must be set together");
+        }
+        MAX_FRAMES = positiveInt(gameProps, "gamePlay.maxFrames");
+        CHUNK_HEIGHT = gameProps.getProperty("world.chunkHeight") == null
+                ? WINDOW_HEIGHT : positiveInt(gameProps, "world.chunkHeight");
+        HOT_RELOAD = Boolean.parseBoolean(gameProps.getProperty("dev.hotReload", "false").trim());
+        TRACE = Boolean.parseBoolean(gameProps.getProperty("dev.trace", "false").trim());
+        TIME_SCALE = gameProps.getProperty("dev.timeScale") == null
+                ? 1 : parseDouble("dev.timeScale", gameProps.getProperty("dev.timeScale"));
+        if (TIME_SCALE < TimeScale.MIN || TIME_SCALE > TimeScale.MAX) {
+            throw new IllegalArgumentException("dev.timeScale must be between " + TimeScale.MIN
+                    + " and " + TimeScale.MAX + " but was " + TIME_SCALE);
+        }
+
+        FONT_FILE = string(gameProps, "font");
+        BACKGROUND_IMAGE = string(gameProps, "backgroundImage");
+
+        TITLE_FONT_SIZE = positiveInt(gameProps, "home.title.fontSize");
+        TITLE_Y = integer(gameProps, "home.title.y");
+        PROMPT_FONT_SIZE = positiveInt(gameProps, "home.prompt.fontSize");
+        PROMPT_Y = integer(gameProps, "home.prompt.y");
+        TITLE = string(messageProps, "home.title");
+        PROMPT = string(messageProps, "home.prompt");
+
+        SCORE_FONT_SIZE = positiveInt(gameProps, "gamePlay.score.fontSize");
+        SCORE_X = integer(gameProps, "gamePlay.score.x");
+        SCORE_Y = integer(gameProps, "gamePlay.score.y");
+        String[] healthPos = string(gameProps, "gamePlay.donkeyhealth.coords").split(",");
+        if (healthPos.length != 2) {
+            throw new IllegalArgumentException("gamePlay.donkeyhealth.coords must be x,y");
+        }
+        HEALTH_X = parseInt("gamePlay.donkeyhealth.coords", healthPos[0]);
+        HEALTH_Y = parseInt("gamePlay.donkeyhealth.coords", healthPos[1]);
+
+        STATUS_FONT_SIZE = positiveInt(gameProps, "gameEnd.status.fontSize");
+        STATUS_Y = integer(gameProps, "gameEnd.status.y");
+        END_SCORE_FONT_SIZE = positiveInt(gameProps, "gameEnd.scores.fontSize");
+        GAME_WON_TXT = string(messageProps, "gameEnd.won");
+        GAME_LOST_TXT = string(messageProps, "gameEnd.lost");
+        CONTINUE_GAME_TXT = string(messageProps, "gameEnd.continue");
+        SCORE_MESSAGE = string(messageProps, "gameEnd.score");
+        HIGH_SCORES_Y = integer(gameProps, "gameEnd.scores.y");
+        HIGH_SCORE_COUNT = gameProps.getProperty("gameEnd.highScores.count") == null
+                ? 5 : positiveInt(gameProps, "gameEnd.highScores.count");
+        if (HIGH_SCORE_COUNT > 10) {
+            throw new IllegalArgumentException("gameEnd.highScores.count must be at most 10 but was " + HIGH_SCORE_COUNT);
+        }
+        HIGH_SCORES_TXT = string(messageProps, "gameEnd.highScores");
+        RANK_TXT = string(messageProps, "gameEnd.rank");
+
+        LEVEL_PROPS = gameProps;
+        LEVELS = Collections.unmodifiableNavigableSet(LevelData.findLevels(gameProps));
+        if (LEVELS.isEmpty()) {
+            throw new IllegalArgumentException("No levels defined; expected at least one mario.levelN entry");
+        }
+    }
+
+    /**
+     * Retrieves the width of the game in pixels.
+     * @return The width of the game in pixels.
+     */
+    public int getWindowWidth() { return WINDOW_WIDTH; }
+
+    /**
+     * Retrieves the height of the game in pixels.
+     * @return The height of the game in pixels.
+     */
+    public int getWindowHeight() { return WINDOW_HEIGHT; }
+
+    /**
+     * Retrieves the width of the window the game is scaled up to, or 0 if it is not scaled.
+     * @return The width of the window the game is scaled up to, or 0 if it is not scaled.
+     */
+    public int getDisplayWidth() { return DISPLAY_WIDTH; }
+
+    /**
+     * Retrieves the height of the window the game is scaled up to, or 0 if it is not scaled.
+     * @return The height of the window the game is scaled up to, or 0 if it is not scaled.
+     */
+    public int getDisplayHeight() { return DISPLAY_HEIGHT; }
+
+    /**
+     * Retrieves the number of frames a level lasts.
+     * @return The number of frames a level lasts.
+     */
+    public int getMaxFrames() { return MAX_FRAMES; }
+
+    /**
+     * Retrieves the height of a level chunk in pixels.
+     * @return The height of a level chunk in pixels.
+     */
+    public double getChunkHeight() { return CHUNK_HEIGHT; }
+
+    /**
+     * Checks whether levels are reloaded while the game runs when their files change.
+     * @return {@code true} if levels are reloaded when their files change, {@code false} otherwise.
+     */
+    public boolean isHotReload() { return HOT_RELOAD; }
+
+    /**
+     * Checks whether every frame of play is written to a trace file.
+     * @return {@code true} if frames are traced, {@code false} otherwise.
+     */
+    public boolean isTrace() { return TRACE; }
+
+    /**
+     * Retrieves the number of ticks played per frame when a game starts; 1 is real time.
+     * @return The number of ticks played per frame when a game starts.
+     */
+    public double getTimeScale() { return TIME_SCALE; }
+
+    /**
+     * Retrieves the path of the font file.
+     * @return The path of the font file.
+     */
+    public String getFontFile() { return FONT_FILE; }
+
+    /**
+     * Retrieves the path of the background image.
+     * @return The path of the background image.
+     */
+    public String getBackgroundImage() { return BACKGROUND_IMAGE; }
+
+    /**
+     * Retrieves the font size of the home screen title.
+     * @return The font size of the home screen title.
+     */
+    public int getTitleFontSize() { return TITLE_FONT_SIZE; }
+
+    /**
+     * Retrieves the vertical position of the home screen title.
+     * @return The vertical position of the home screen title.
+     */
+    public int getTitleY() { return TITLE_Y; }
+
+    /**
+     * Retrieves the font size of the home screen prompt.
+     * @return The font size of the home screen prompt.
+     */
+    public int getPromptFontSize() { return PROMPT_FONT_SIZE; }
+
+    /**
+     * Retrieves the vertical position of the home screen prompt.
+     * @return The vertical position of the home screen prompt.
+     */
+    public int getPromptY() { return PROMPT_Y; }
+
+    /**
+     * Retrieves the game title.
+     * @return The game title.
+     */
+    public String getTitle() { return TITLE; }
+
+    /**
+     * Retrieves the home screen prompt.
+     * @return The home screen prompt.
+     */
+    public String getPrompt() { return PROMPT; }
+
+    /**
+     * Retrieves the font size of the gameplay information.
+     * @return The font size of the gameplay information.
+     */
+    public int getScoreFontSize() { return SCORE_FONT_SIZE; }
+
+    /**
+     * Retrieves the horizontal position of the score.
+     * @return The horizontal position of the score.
+     */
+    public int getScoreX() { return SCORE_X; }
+
+    /**
+     * Retrieves the vertical position of the score.
+     * @return The vertical position of the score.
+     */
+    public int getScoreY() { return SCORE_Y; }
+
+    /**
+     * Retrieves the horizontal position of Donkey's health.
+     * @return The horizontal position of Donkey's health.
+     */
+    public int getHealthX() { return HEALTH_X; }
+
+    /**
+     * Retrieves the vertical position of Donkey's health.
+     * @return The vertical position of Donkey's health.
+     */
+    public int getHealthY() { return HEALTH_Y; }
+
+    /**
+     * Retrieves the font size of the game end status message.
+     * @return The font size of the game end status message.
+     */
+    public int getStatusFontSize() { return STATUS_FONT_SIZE; }
+
+    /**
+     * Retrieves the vertical position of the game end status message.
+     * @return The vertical position of the game end status message.
+     */
+    public int getStatusY() { return STATUS_Y; }
+
+    /**
+     * Retrieves the font size of the game end score and prompt.
+     * @return The font size of the game end score and prompt.
+     */
+    public int getEndScoreFontSize() { return END_SCORE_FONT_SIZE; }
+
+    /**
+     * Retrieves the message shown when the player wins.
+     * @return The message shown when the player wins.
+     */
+    public String getGameWonText() { return GAME_WON_TXT; }
+
+    /**
+     * Retrieves the message shown when the player loses.
+     * @return The message shown when the player loses.
+     */
+    public String getGameLostText() { return GAME_LOST_TXT; }
+
+    /**
+     * Retrieves the message asking the player to continue.
+     * @return The message asking the player to continue.
+     */
+    public String getContinueText() { return CONTINUE_GAME_TXT; }
+
+    /**
+     * Retrieves the label of the final score.
+     * @return The label of the final score.
+     */
+    public String getScoreMessage() { return SCORE_MESSAGE; }
+
+    /**
+     * Retrieves the vertical position of the high-score table.
+     * @return The vertical position of the high-score table.
+     */
+    public int getHighScoresY() { return HIGH_SCORES_Y; }
+
+    /**
+     * Retrieves the number of best games listed on the game end screen.
+     * @return The number of best games listed on the game end screen.
+     */
+    public int getHighScoreCount() { return HIGH_SCORE_COUNT; }
+
+    /**
+     * Retrieves the heading of the high-score table.
+     * @return The heading of the high-score table.
+     */
+    public String getHighScoresText() { return HIGH_SCORES_TXT; }
+
+    /**
+     * Retrieves the label of the player's rank.
+     * @return The label of the player's rank.
+     */
+    public String getRankText() { return RANK_TXT; }
+
+    /**
+     * Retrieves every font size used by the screens, for preloading.
+     * @return Every font size used by the screens, for preloading.
+     */
+    public int[] getFontSizes() {
+        return new int[] {TITLE_FONT_SIZE, PROMPT_FONT_SIZE, SCORE_FONT_SIZE, STATUS_FONT_SIZE, END_SCORE_FONT_SIZE};
+    }
+
+    /**
+     * Retrieves the properties holding the level definitions.
+     * @return The properties holding the level definitions.
+     */
+    public Properties getLevelProperties() { return LEVEL_PROPS; }
+
+    /**
+     * Retrieves the numbers of every defined level, in ascending order.
+     * @return The numbers of every defined level, in ascending order.
+     */
+    public NavigableSet<Integer> getLevels() { return LEVELS; }
+
+    private static String string(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing setting " + key);
+        }
+        return value;
+    }
+
+    private static int integer(Properties props, String key) {
+        return parseInt(key, string(props, key));
+    }
+
+    private static int positiveInt(Properties props, String key) {
+        int value = integer(props, key);
+        if (value <= 0) {
+            throw new IllegalArgumentException(key + " must be positive but was " + value);
+        }
+        return value;
+    }
+
+    private static int parseInt(String key, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(key + " must be a whole number but was '" + value + "'");
+        }
+    }
+
+    private static double parseDouble(String key, String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(key + " must be a number but was '" + value + "'");
+        }
+    }
+}
@@ -1,5 +1,7 @@
 import bagel.*;
-import java.util.Properties;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents the screen displayed at the end of the game.
@@ -13,6 +15,8 @@ public class GameEndScreen {
     private final String GAME_LOST_TXT; // Message displayed when the player loses
     private final String CONTINUE_GAME_TXT;  // Message displayed when asking player to continue
     private final String SCORE_MESSAGE;      // Message displayed that shows the score information
+    private final String HIGH_SCORES_TXT;    // Heading of the high-score table
+    private final String RANK_TXT;           // Message displayed that shows the player's rank
 
     // Fonts for displaying win/loss message and final score
     private final Font STATUS_FONT;
@@ -27,35 +31,43 @@ public class GameEndScreen {
     // horizontally and positioned 100 pixels above the bottom edge
     // of the window.
 
+    private final int MESSAGE_DIFF_Y_3 = 40;        // The rank is placed 40 pixels below the final score
+    private final int HIGH_SCORE_LINE_Y = 30;       // Each line of the high-score table is 30 pixels apart
+    private final int HIGH_SCORES_Y;                // Vertical position of the high-score table heading
+
     // The final score from this play through level 1 and level 2
     private double finalScore = 0.0;
 
     // Indicates whether the player won or lost
     private boolean isWon;
 
+    // Rank of this game among all saved games, and the best saved games
+    private int rank = 0;
+    private int gameCount = 0;
+    private List<HighScores.Entry> highScores = new ArrayList<>();
+
     /**
-     * Constructs the GameEndScreen, loading required resources such as images, fonts, and text.
+     * Constructs the GameEndScreen from the already loaded images, fonts, and text settings.
      *
-     * @param gameProps Properties file containing file paths and layout configurations.
-     * @param msgProps  Properties file containing game messages and prompts.
+     * @param config The game settings containing file paths, layout and game messages.
      */
-    public GameEndScreen(Properties gameProps, Properties msgProps) {
-        // Load the background image and end-game messages from properties
-        this.BACKGROUND_IMAGE = new Image(gameProps.getProperty("backgroundImage"));
-        this.GAME_WON_TXT = msgProps.getProperty("gameEnd.won");
-        this.GAME_LOST_TXT = msgProps.getProperty("gameEnd.lost");
-        this.CONTINUE_GAME_TXT = msgProps.getProperty("gameEnd.continue");
-        this.SCORE_MESSAGE = msgProps.getProperty("gameEnd.score");
+    public GameEndScreen(GameConfig config) {
+        // Load the background image and end-game messages
+        this.BACKGROUND_IMAGE = AssetLoader.getImage(config.getBackgroundImage());
+        this.GAME_WON_TXT = config.getGameWonText();
+        this.GAME_LOST_TXT = config.getGameLostText();
+        this.CONTINUE_GAME_TXT = config.getContinueText();
+        this.SCORE_MESSAGE = config.getScoreMessage();
+        this.HIGH_SCORES_TXT = config.getHighScoresText();
+        this.RANK_TXT = config.getRankText();
+        this.HIGH_SCORES_Y = config.getHighScoresY();
 
         // Load the vertical position of the status text
-        this.STATUS_Y = Integer.parseInt(gameProps.getProperty("gameEnd.status.y"));
+        this.STATUS_Y = config.getStatusY();
 
         // Load fonts for status message and final score
-        String fontFile = gameProps.getProperty("font");
-        this.STATUS_FONT = new Font(fontFile,
-                Integer.parseInt(gameProps.getProperty("gameEnd.status.fontSize")));
-        this.SCORE_FONT = new Font(fontFile,
-                Integer.parseInt(gameProps.getProperty("gameEnd.scores.fontSize")));
+        this.STATUS_FONT = AssetLoader.getFont(config.getFontFile(), config.getStatusFontSize());
+        this.SCORE_FONT = AssetLoader.getFont(config.getFontFile(), config.getEndScoreFontSize());
     }
 
     /**
@@ -76,6 +88,19 @@ public class GameEndScreen {
         this.finalScore = isWon ? gainedScore : 0;
     }
 
+    /**
+     * Sets the high-score table to be displayed on the end screen.
+     *
+     * @param rank       The rank of the game just finished, where 1 is the best.
+     * @param gameCount  The number of games in the table.
+     * @param highScores The best games, best first.
+     */
+    public void setHighScores(int rank, int gameCount, List<HighScores.Entry> highScores) {
+        this.rank = rank;
+        this.gameCount = gameCount;
+        this.highScores = highScores;
+    }
+
     /**
      * Renders the game end screen, including the final score, win/loss message,
      * and a prompt for the player to continue. Also checks for user input to exit the screen.
@@ -91,28 +116,44 @@ public class GameEndScreen {
         String statusText = isWon ? GAME_WON_TXT : GAME_LOST_TXT;
         STATUS_FONT.drawString(
                 statusText,
-                Window.getWidth() / 2 - STATUS_FONT.getWidth(statusText) / 2,
+                ShadowDonkeyKong.getScreenWidth() / 2 - STATUS_FONT.getWidth(statusText) / 2,
                 STATUS_Y
         );
 
         // 3) Display the final score below the status message
         String finalScoreText = SCORE_MESSAGE + " " + (int) finalScore;
-        double finalScoreX = Window.getWidth() / 2 - SCORE_FONT.getWidth(finalScoreText) / 2;
+        double finalScoreX = ShadowDonkeyKong.getScreenWidth() / 2 - SCORE_FONT.getWidth(finalScoreText) / 2;
         double finalScoreY = STATUS_Y + MESSAGE_DIFF_Y_1;
         SCORE_FONT.drawString(finalScoreText, finalScoreX, finalScoreY);
 
-        // 4) Display a prompt instructing the player to continue
+        // 4) Display the player's rank below the final score, and the best games above the status message
+        if (rank > 0) {
+            String rankText = RANK_TXT + " " + rank + "/" + gameCount;
+            double rankX = ShadowDonkeyKong.getScreenWidth() / 2 - SCORE_FONT.getWidth(rankText) / 2;
+            SCORE_FONT.drawString(rankText, rankX, finalScoreY + MESSAGE_DIFF_Y_3);
+        }
+        if (!highScores.isEmpty()) {
+            double headingX = ShadowDonkeyKong.getScreenWidth() / 2 - SCORE_FONT.getWidth(HIGH_SCORES_TXT) / 2;
+            SCORE_FONT.drawString(HIGH_SCORES_TXT, headingX, HIGH_SCORES_Y);
+            for (int i = 0; i < highScores.size(); i++) {
+                String line = (i + 1) + ". " + highScores.get(i).getScore();
+                double lineX = ShadowDonkeyKong.getScreenWidth() / 2 - SCORE_FONT.getWidth(line) / 2;
+                SCORE_FONT.drawString(line, lineX, HIGH_SCORES_Y + (i + 1) * HIGH_SCORE_LINE_Y);
+            }
+        }
+
+        // 5) Display a prompt instructing the player to continue
         String promptText = CONTINUE_GAME_TXT;
-        double promptX = Window.getWidth() / 2 - SCORE_FONT.getWidth(promptText) / 2;
-        double promptY = Window.getHeight() - MESSAGE_DIFF_Y_2; // Positioned near the bottom
+        double promptX = ShadowDonkeyKong.getScreenWidth() / 2 - SCORE_FONT.getWidth(promptText) / 2;
+        double promptY = ShadowDonkeyKong.getScreenHeight() - MESSAGE_DIFF_Y_2; // Positioned near the bottom
         SCORE_FONT.drawString(promptText, promptX, promptY);
 
-        // 5) Check if the player presses SPACE to exit the end screen
+        // 6) Check if the player presses SPACE to exit the end screen
         if (input.wasPressed(Keys.SPACE)) {
             return true;
         }
 
-        // 6) Otherwise, remain on the game end screen
+        // 7) Otherwise, remain on the game end screen
         return false;
     }
 }
@@ -1,16 +1,20 @@
 import bagel.*;
-import bagel.Input;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Properties;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Represents the main gameplay screen where the player controls Mario.
  * This class manages game objects, updates their states, and handles game logic.
  */
 public class GamePlayScreen {
-    private final Properties GAME_PROPS;
+    private final GameConfig CONFIG;
 
     // Game objects
     private Mario mario;
@@ -22,9 +26,20 @@ public class GamePlayScreen {
     private Image background;   // Background image for the game
     private Platform[] platforms; // Array of platforms in the game
     private Monkey[] monkeys;   // Array of different Monkeys in the game
+    private double worldWidth = ShadowDonkeyKong.getScreenWidth();   // Level size, may exceed the window
+    private double worldHeight = ShadowDonkeyKong.getScreenHeight();
+    private ChunkStreamer chunkStreamer;   // Only used when the level is taller than the window
+    private PlatformGraph platformGraph;   // Floors and ladders of the whole level, for chasing monkeys
+    private Telemetry telemetry;           // Only set while a player is playing, not during replays
+    private TickTracer tracer;             // Only set when frames are traced
+    private final TimingWheel TIMERS = new TimingWheel();   // Periodic actions such as monkeys shooting
+    private final JobQueue JOBS = new JobQueue(AI_STEPS_PER_FRAME);   // AI work spread over frames
+    private final CollisionDispatcher COLLISIONS = new CollisionDispatcher(COLLISION_MATRIX);
+    private final SystemGraph SYSTEMS = new SystemGraph();   // The parts of a tick before the bullets
 
     // Frame tracking
     private int currFrame = 0;  // Tracks the number of frames elapsed
+    private Controls currentControls;   // The player's controls for the tick being played
 
     // Game parameters
     private final int MAX_FRAMES;  // Maximum number of frames before game ends
@@ -46,12 +61,32 @@ public class GamePlayScreen {
     private static final int BARREL_CROSS_SCORE = 30;  // Earn 30 points when jumping over a barrel
     private static final int KILL_MONKEY_SCORE = 100;  // Earn 100 points when killing a monkey
     private static final int TIME_DISPLAY_DIFF_Y = 30;
+    private static final int BULLET_DISPLAY_DIFF_Y = 30;   // Bullet count is shown 30 pixels below the health
+    private static final int AI_STEPS_PER_FRAME = 64;      // Steps of AI jobs run per frame, such as floors searched
+    private static final int PARALLEL_ENTITIES = 256;      // Barrels and monkeys from which a tick uses several cores
+
+    // Which kinds of game objects can touch; pairs of any other layers are never tested
+    private static final CollisionMatrix COLLISION_MATRIX = new CollisionMatrix()
+            .allow(CollisionLayer.MARIO, CollisionLayer.BARREL)
+            .allow(CollisionLayer.MARIO, CollisionLayer.MONKEY)
+            .allow(CollisionLayer.MARIO, CollisionLayer.DONKEY)
+            .allow(CollisionLayer.MARIO, CollisionLayer.BANANA)
+            .allow(CollisionLayer.BULLET, CollisionLayer.PLATFORM)
+            .allow(CollisionLayer.BULLET, CollisionLayer.MONKEY)
+            .allow(CollisionLayer.BULLET, CollisionLayer.DONKEY);
 
 
     private int score = 0;  // Player's score for jumping over barrels only
     private int donkeyHealth = 5;  // DonkeyKong health
     private int bulletCount = 0;   // Bullet count
     private boolean isGameOver = false; // Game over flag
+    private boolean hammeredDonkey = false;   // Mario reached Donkey with the hammer; the level ends on that tick
+
+    // Events found by the systems of a tick, each set by one system only. They are logged on the render thread
+    // once the systems have run, as telemetry takes events from that thread alone
+    private boolean barrelJumped = false;
+    private boolean timedOut = false;
+    private boolean hammerCollected = false;
 
     private final GameLevelStrategy levelStrategy;  // Pick which level to be shown
     private final int level;   // Game level
@@ -77,34 +112,98 @@ public class GamePlayScreen {
     /**
      * Constructs the gameplay screen, loading resources and initializing game objects.
      *
-     * @param gameProps  Properties file containing game settings.
+     * @param config     Game settings parsed at start-up.
      * @param startLevel Game level to be loaded.
      * @param startScore Starting score of the current level
      */
-    public GamePlayScreen(Properties gameProps, int startLevel, int startScore) {
-        this.GAME_PROPS = gameProps;
+    public GamePlayScreen(GameConfig config, int startLevel, int startScore) {
+        this.CONFIG = config;
 
         // Load game parameters
-        this.MAX_FRAMES = Integer.parseInt(gameProps.getProperty("gamePlay.maxFrames"));
-        this.STATUS_FONT = new Font(
-                gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("gamePlay.score.fontSize"))
-        );
-        this.SCORE_X = Integer.parseInt(gameProps.getProperty("gamePlay.score.x"));
-        this.SCORE_Y = Integer.parseInt(gameProps.getProperty("gamePlay.score.y"));
-        String[] healthPos = GAME_PROPS.getProperty("gamePlay.donkeyhealth.coords").split(",");
-        this.HEALTH_X = Integer.parseInt(healthPos[0]);
-        this.HEALTH_Y = Integer.parseInt(healthPos[1]);
-        this.BULLET_X = Integer.parseInt(healthPos[0]);
-        this.BULLET_Y = Integer.parseInt(healthPos[1]) +30 ;
-        this.background = new Image("res/background.png");
-
-        this.levelStrategy = (startLevel == 2) ? new Level2Strategy() : new Level1Strategy();
+        this.MAX_FRAMES = config.getMaxFrames();
+        this.STATUS_FONT = AssetLoader.getFont(config.getFontFile(), config.getScoreFontSize());
+        this.SCORE_X = config.getScoreX();
+        this.SCORE_Y = config.getScoreY();
+        this.HEALTH_X = config.getHealthX();
+        this.HEALTH_Y = config.getHealthY();
+        this.BULLET_X = config.getHealthX();
+        this.BULLET_Y = config.getHealthY() + BULLET_DISPLAY_DIFF_Y;
+        this.background = AssetLoader.getImage(config.getBackgroundImage());
+
+        registerCollisions();
+        registerSystems();
+
+        this.levelStrategy = new DataLevelStrategy(startLevel);
         this.levelStrategy.initialize(this);
+
+        // Tall levels only keep the chunks around Mario alive, so their graph comes from the level definition
+        if (chunkStreamer != null) {
+            useActiveChunks();
+            this.platformGraph = new PlatformGraph(chunkStreamer.getLevelData(), JOBS);
+        } else {
+            this.platformGraph = new PlatformGraph(platforms, ladders, JOBS);
+            startMonkeyTimers();
+        }
         this.level = startLevel;
         this.score = startScore;
     }
 
+    /**
+     * Set the score carried over from the previous level.
+     */
+    public void setScore(int score) {
+        this.score = score;
+    }
+
+    /**
+     * Continues the game of a screen that this one replaces after its level was reloaded.
+     * The score, time, Donkey's health, bullets and Mario's position and items are kept;
+     * Mario is pushed back inside the level on the next frame if it has become smaller.
+     *
+     * @param previous The screen being replaced.
+     */
+    public void carryOver(GamePlayScreen previous) {
+        this.score = previous.score;
+        this.currFrame = previous.currFrame;
+        this.donkeyHealth = previous.donkeyHealth;
+        this.bulletCount = previous.bulletCount;
+        mario.setPosition(previous.mario.getX(), previous.mario.getY());
+        mario.setHasHammer(previous.mario.holdHammer());
+        mario.setHasBlaster(previous.mario.holdBlaster());
+        this.telemetry = previous.telemetry;
+        this.tracer = previous.tracer;
+    }
+
+    /**
+     * Set where every frame is traced, or {@code null} to stop tracing.
+     */
+    public void setTracer(TickTracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Set where gameplay events are logged.
+     */
+    public void setTelemetry(Telemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    /**
+     * Set the size of the level, which can be larger than the window.
+     */
+    public void setWorldSize(double worldWidth, double worldHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * Set the chunks of a level taller than the window, which create the platforms, ladders,
+     * barrels and monkeys around Mario in place of the arrays of the whole level.
+     */
+    public void setChunkStreamer(ChunkStreamer chunkStreamer) {
+        this.chunkStreamer = chunkStreamer;
+    }
+
     /**
      * Set Mario object in the game.
      */
@@ -165,52 +264,123 @@ public class GamePlayScreen {
     /**
      * Updates game state each frame.
      *
-     * @param input The current player input.
+     * @param controls The player's controls for this frame.
      * @return {@code true} if the game ends, {@code false} otherwise.
      */
-    public boolean update(Input input) {
+    public boolean update(Controls controls) {
+        currentControls = controls;
+        long phaseStart = tracer != null ? System.nanoTime() : 0;
         currFrame++;
-        // Draw background
-        background.drawFromTopLeft(0, 0);
+        TIMERS.advance();
+        if (chunkStreamer != null && chunkStreamer.update(mario.getY())) {
+            useActiveChunks();
+        }
+
+        // Keep Mario in view; objects outside the view skip their draw calls
+        Camera.follow(mario.getX(), mario.getY(), worldWidth, worldHeight);
+
+        // 1) Move everything but the bullets with drawing off, as the systems may run on worker threads;
+        //    large levels spread the systems that do not depend on each other over the cores
+        boolean drawing = Camera.isDrawing();
+        Camera.setDrawing(false);
+        int entities = barrels.length + (monkeys != null ? monkeys.length : 0);
+        SYSTEMS.run(entities >= PARALLEL_ENTITIES);
+        reportSystemEvents();
+        if (tracer != null) {
+            tracer.set(TickTracer.WORLD_NANOS, SYSTEMS.getNanos(TickTracer.WORLD_NANOS));
+            tracer.set(TickTracer.AI_NANOS, SYSTEMS.getNanos(TickTracer.AI_NANOS));
+            tracer.set(TickTracer.MONKEY_NANOS, SYSTEMS.getNanos(TickTracer.MONKEY_NANOS));
+            tracer.set(TickTracer.MARIO_NANOS, SYSTEMS.getNanos(TickTracer.MARIO_NANOS));
+            phaseStart = System.nanoTime();
+        }
 
-        // 1) Draw and update platforms
+        // 2) Check if Mario shoots
+        if (controls.has(Controls.SHOOT) && bulletCount > 0 && mario.holdBlaster()) {
+            mario.shoot();
+            bulletCount--;
+            report(Telemetry.SHOT_FIRED);
+        }
+
+        // 3) Update Bullets
+        List<Bullet> bullets = mario.getBullets();
+        ParallelChunks.run(bullets.size(), (chunk, from, to) -> {
+            for (int i = from; i < to; i++) {
+                bullets.get(i).update(worldWidth);
+            }
+        });
+
+        // 4) Resolve every collision of this frame, then drop the spent bullets
+        COLLISIONS.clear();
+        COLLISIONS.add(mario);
+        COLLISIONS.add(donkey);
+        COLLISIONS.addAll(barrels);
+        COLLISIONS.addAll(platforms);
+        COLLISIONS.addAll(mario.getBullets());
+        if (monkeys != null) {
+            COLLISIONS.addAll(monkeys);
+            for (Monkey monkey : monkeys) {
+                if (monkey instanceof IntelligentMonkey && !monkey.destroyed) {
+                    COLLISIONS.addAll(((IntelligentMonkey) monkey).getBananas());
+                }
+            }
+        }
+        COLLISIONS.dispatch();
+        Iterator<Bullet> bulletIterator = mario.getBullets().iterator();
+        while (bulletIterator.hasNext()) {
+            Bullet b = bulletIterator.next();
+            if (!b.isActive()) {
+                bulletIterator.remove();
+            }
+        }
+        if (mario.didCollectBlaster()) {
+            bulletCount += 5;
+            report(Telemetry.BLASTER_PICKUP);
+        }
+        if (mario.holdHammer()) {
+            bulletCount = 0;
+        }
+        if (tracer != null) {
+            tracer.set(TickTracer.PROJECTILE_NANOS, SYSTEMS.getNanos(TickTracer.PROJECTILE_NANOS)
+                    + System.nanoTime() - phaseStart);
+            phaseStart = System.nanoTime();
+        }
+
+        // 5) Draw the level, bullet count, health, score and time left
+        Camera.setDrawing(drawing);
+        if (drawing) {
+            draw();
+        }
+        if (tracer != null) {
+            tracePhase(TickTracer.HUD_NANOS, phaseStart);
+            traceFrame();
+        }
+
+        // 6) Return game state
+        return isGameOver || isLevelCompleted();
+    }
+
+    /**
+     * Draws the level as it is, without playing a tick; used on the frames skipped when the game
+     * runs slower than real time.
+     */
+    public void draw() {
+        Camera.follow(mario.getX(), mario.getY(), worldWidth, worldHeight);
+        background.drawFromTopLeft(0, 0);
         for (Platform platform : platforms) {
             if (platform != null) {
                 platform.draw();
             }
         }
-
-        // 2) Update ladders
         for (Ladder ladder : ladders) {
             if (ladder != null) {
-                ladder.update(platforms);
+                ladder.draw();
             }
         }
-
-        // 3) Update barrels
         for (Barrel barrel : barrels) {
-            if (barrel == null) continue;
-            if (mario.jumpOver(barrel)) {
-                score += BARREL_CROSS_SCORE;  // Add 30 score when jumped over barrels
+            if (barrel != null) {
+                barrel.draw();
             }
-            if (!barrel.isDestroyed() && mario.isTouchingBarrel(barrel)) {
-                if (!mario.holdHammer()) {
-                    isGameOver = true;
-                } else {
-                    barrel.destroy();
-                    score += BARREL_SCORE;   // Add 100 score when destroyed barrels
-                }
-            }
-            barrel.update(platforms);
-        }
-
-        // 4) Check game time and donkey status
-        if (checkingGameTime()) {
-            isGameOver = true;
         }
-        donkey.update(platforms);
-
-        // 5) Draw hammer, blaster and donkey
         if (hammers != null) {
             for (Hammer hammer : hammers) {
                 if (hammer != null) {
@@ -226,102 +396,415 @@ public class GamePlayScreen {
             }
         }
         donkey.draw();
-
-        // 6) Update monkeys
         if (monkeys != null) {
             for (Monkey monkey : monkeys) {
-                monkey.update(mario, platforms);
-
-                // Handle Mario-monkey collision (game over if not holding hammer/blaster, otherwise kill the monkey)
-                if (!monkey.isDestroyed() && mario.isTouchingMonkey(monkey)) {
-                    if (!mario.holdHammer()) {
-                        isGameOver = true;
-                    } else{
-                        monkey.destroy();
-                        score += KILL_MONKEY_SCORE;  // Add 100 score when killed monkeys
+                monkey.draw();
+                if (monkey instanceof IntelligentMonkey && !monkey.destroyed) {
+                    for (Banana banana : ((IntelligentMonkey) monkey).getBananas()) {
+                        banana.draw();
                     }
                 }
             }
         }
-        // 6) Update Mario
-        mario.update(input, ladders, platforms, hammers, blasters);
-
-
-        // 7) Check if Mario reaches Donkey
-        if (mario.hasReached(donkey) && !mario.holdHammer()) {
-            isGameOver = true;
+        mario.draw();
+        for (Bullet bullet : mario.getBullets()) {
+            bullet.draw();
         }
+        displayInfo();
+    }
 
-        // 8) Update and check banana collisions
-        if (monkeys != null) {
-            for (Monkey monkey : monkeys) {
-                // Let intelligent monkey handle its own bananas
-                if (monkey instanceof IntelligentMonkey && !monkey.destroyed) {
-                    if (((IntelligentMonkey) monkey).updateBananasAndCheckMario(mario)) {
-                        isGameOver = true;
-                    }
+    /**
+     * Saves everything that changes while the level is played: the clock, score, Donkey's health,
+     * bullets and every game object. The level itself is not saved; it is rebuilt from its definition.
+     *
+     * @return The saved state.
+     */
+    public byte[] saveState() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            // 1) Game progress
+            out.writeInt(level);
+            out.writeInt(currFrame);
+            out.writeInt(score);
+            out.writeInt(donkeyHealth);
+            out.writeInt(bulletCount);
+            out.writeBoolean(isGameOver);
+
+            // 2) Donkey and the items Mario can collect
+            donkey.writeState(out);
+            out.writeInt(hammers.length);
+            for (Hammer hammer : hammers) {
+                hammer.writeState(out);
+            }
+            out.writeInt(blasters.length);
+            for (Blaster blaster : blasters) {
+                blaster.writeState(out);
+            }
 
+            // 3) Ladders, barrels and monkeys, through the chunks when the level is streamed
+            out.writeBoolean(chunkStreamer != null);
+            if (chunkStreamer != null) {
+                chunkStreamer.writeState(out);
+            } else {
+                out.writeInt(ladders.length);
+                for (Ladder ladder : ladders) {
+                    ladder.writeState(out);
+                }
+                out.writeInt(barrels.length);
+                for (Barrel barrel : barrels) {
+                    barrel.writeState(out);
+                }
+                out.writeInt(monkeys.length);
+                for (Monkey monkey : monkeys) {
+                    monkey.writeState(out);
                 }
             }
+
+            // 4) Mario and his bullets
+            mario.writeState(out, barrels);
+
+            // 5) The chasing monkeys' way to Mario, and the search for it under way
+            platformGraph.writeState(out);
+        } catch (IOException ex) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(ex);
         }
+        return bytes.toByteArray();
+    }
 
-        // 9) Check if Mario shoots
-        if (input.wasPressed(Keys.S) && bulletCount > 0 && mario.holdBlaster()) {
-            mario.shoot();
-            bulletCount--;
+    /**
+     * Builds the level and puts it back in the state saved by {@link #saveState}.
+     *
+     * @param config Game settings parsed at start-up.
+     * @param state  The saved state.
+     * @return The restored gameplay screen.
+     * @throws IOException if the state is damaged or was saved from a different version of the level.
+     */
+    public static GamePlayScreen restore(GameConfig config, byte[] state) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(state))) {
+            GamePlayScreen screen = new GamePlayScreen(config, in.readInt(), 0);
+            screen.readState(in);
+            return screen;
         }
+    }
 
-        // 10) Update Bullets
-        Iterator<Bullet> bulletIterator = mario.getBullets().iterator();
-        while (bulletIterator.hasNext()) {
-            Bullet b = bulletIterator.next();
-            b.update(platforms);
-            b.draw();
+    /** Reads the state written by {@link #saveState} after the level number. */
+    private void readState(DataInputStream in) throws IOException {
+        // 1) Game progress
+        currFrame = in.readInt();
+        score = in.readInt();
+        donkeyHealth = in.readInt();
+        bulletCount = in.readInt();
+        isGameOver = in.readBoolean();
+        hammeredDonkey = false;   // Only ever set on the last tick of a level, which is never saved
+
+        // 2) Donkey and the items Mario can collect
+        donkey.readState(in);
+        checkCount("hammers", hammers.length, in.readInt());
+        for (Hammer hammer : hammers) {
+            hammer.readState(in);
+        }
+        checkCount("blasters", blasters.length, in.readInt());
+        for (Blaster blaster : blasters) {
+            blaster.readState(in);
+        }
 
-            if (!b.isActive()) {
-                bulletIterator.remove();
-                continue;
+        // 3) Ladders, barrels and monkeys
+        boolean chunked = in.readBoolean();
+        if (chunked != (chunkStreamer != null)) {
+            throw new IOException("Saved state does not match the size of level " + level);
+        }
+        if (chunked) {
+            // The monkeys in play are replaced by the saved ones
+            for (Monkey monkey : monkeys) {
+                monkey.stopTimers();
+            }
+            chunkStreamer.readState(in);
+            useActiveChunks();
+        } else {
+            checkCount("ladders", ladders.length, in.readInt());
+            for (Ladder ladder : ladders) {
+                ladder.readState(in);
+            }
+            checkCount("barrels", barrels.length, in.readInt());
+            for (Barrel barrel : barrels) {
+                barrel.readState(in);
+            }
+            checkCount("monkeys", monkeys.length, in.readInt());
+            for (Monkey monkey : monkeys) {
+                monkey.readState(in);
             }
+        }
 
-            // Check intersection with monkeys and destroy them
-            if (monkeys != null) {
-                for (Monkey monkey : monkeys) {
-                    if (!monkey.isDestroyed() && b.getBoundingBox().intersects(monkey.getBoundingBox())) {
-                        monkey.destroy();
-                        bulletIterator.remove();
-                        score += KILL_MONKEY_SCORE;  // Add 100 score when killed monkeys.
-                        break;
+        // 4) Mario and his bullets
+        mario.readState(in, barrels);
+        Camera.follow(mario.getX(), mario.getY(), worldWidth, worldHeight);
+
+        // 5) The chasing monkeys' way to Mario; the only AI jobs are its searches
+        JOBS.clear();
+        platformGraph.readState(in);
+    }
+
+    /**
+     * Declares what happens when game objects touch. Rules run in this order, so a bullet stopped by
+     * a platform cannot also hit a monkey, and a bullet that hits a monkey cannot also hit Donkey.
+     */
+    private void registerCollisions() {
+        // Mario is hurt by barrels, monkeys and bananas unless the hammer deals with them
+        COLLISIONS.<Mario, Barrel>on(CollisionLayer.MARIO, CollisionLayer.BARREL, (mario, barrel) -> {
+            if (!mario.holdHammer()) {
+                gameOver(Telemetry.DEATH_BARREL);
+            } else {
+                barrel.destroy();
+                score += BARREL_SCORE;   // Add 100 score when destroyed barrels
+                report(Telemetry.BARREL_DESTROY);
+            }
+        });
+        COLLISIONS.<Mario, Monkey>on(CollisionLayer.MARIO, CollisionLayer.MONKEY, (mario, monkey) -> {
+            if (!mario.holdHammer()) {
+                gameOver(Telemetry.DEATH_MONKEY);
+            } else {
+                monkey.destroy();
+                score += KILL_MONKEY_SCORE;  // Add 100 score when killed monkeys
+                report(Telemetry.MONKEY_KILL);
+            }
+        });
+        COLLISIONS.<Mario, Donkey>on(CollisionLayer.MARIO, CollisionLayer.DONKEY, (mario, donkey) -> {
+            if (!mario.holdHammer()) {
+                gameOver(Telemetry.DEATH_DONKEY);
+            } else {
+                hammeredDonkey = true;
+            }
+        });
+        COLLISIONS.<Mario, Banana>on(CollisionLayer.MARIO, CollisionLayer.BANANA,
+                (mario, banana) -> gameOver(Telemetry.DEATH_BANANA));
+
+        // Bullets stop at platforms, kill monkeys and wear Donkey down
+        COLLISIONS.<Bullet, Platform>on(CollisionLayer.BULLET, CollisionLayer.PLATFORM,
+                (bullet, platform) -> bullet.deActive());
+        COLLISIONS.<Bullet, Monkey>on(CollisionLayer.BULLET, CollisionLayer.MONKEY, (bullet, monkey) -> {
+            monkey.destroy();
+            bullet.deActive();
+            score += KILL_MONKEY_SCORE;  // Add 100 score when killed monkeys.
+            report(Telemetry.BULLET_HIT_MONKEY);
+        });
+        COLLISIONS.<Bullet, Donkey>on(CollisionLayer.BULLET, CollisionLayer.DONKEY, (bullet, donkey) -> {
+            bullet.deActive();
+            donkeyHealth--;
+            report(Telemetry.BULLET_HIT_DONKEY);
+            // If donkey is out of health, game over
+            if (donkeyHealth <= 0) {
+                isGameOver = true;
+            }
+        });
+    }
+
+    /**
+     * Splits the tick up to the bullets into systems, declaring what each reads and writes so that
+     * those that share nothing, such as the ladders, barrels and Donkey, can run at the same time.
+     * Systems are added in the order the tick used to run them in, which is the order they keep
+     * whenever one could see another's changes.
+     */
+    private void registerSystems() {
+        // 1) Ladders settle onto the platforms
+        SYSTEMS.add(TickResource.PLATFORMS, TickResource.LADDERS, TickTracer.WORLD_NANOS, () -> {
+            for (Ladder ladder : ladders) {
+                if (ladder != null) {
+                    ladder.update(platforms);
+                }
+            }
+        });
+
+        // 2) Score the barrel Mario jumps over, where it was before it moves; clearing one ends the jump,
+        //    so each chunk finds its first and the first of those in barrel order is scored
+        SYSTEMS.add(TickResource.BARRELS, TickResource.MARIO | TickResource.GAME, TickTracer.WORLD_NANOS, () -> {
+            int[] firstJumped = new int[ParallelChunks.chunkCount(barrels.length)];
+            ParallelChunks.run(barrels.length, (chunk, from, to) -> {
+                firstJumped[chunk] = -1;
+                for (int i = from; i < to && firstJumped[chunk] < 0; i++) {
+                    if (barrels[i] != null && mario.canJumpOver(barrels[i])) {
+                        firstJumped[chunk] = i;
                     }
                 }
-                // If bullet was removed, skip donkey check
-                if (!b.isActive()) {
-                    continue;
+            });
+            for (int index : firstJumped) {
+                if (index >= 0) {
+                    mario.jumpOver(barrels[index]);
+                    score += BARREL_CROSS_SCORE;  // Add 30 score when jumped over barrels
+                    barrelJumped = true;
+                    break;
                 }
             }
+        });
+
+        // 3) Barrels fall onto the platforms
+        SYSTEMS.add(TickResource.PLATFORMS, TickResource.BARRELS, TickTracer.WORLD_NANOS, () ->
+                ParallelChunks.run(barrels.length, (chunk, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        if (barrels[i] != null) {
+                            barrels[i].update(platforms);
+                        }
+                    }
+                }));
 
-            // Check intersection with donkey and reduce its health
-            if (b.getBoundingBox().intersects(donkey.getBoundingBox())) {
-                bulletIterator.remove();
-                donkeyHealth--;
-                // If donkey is out of health, game over
-                if (donkeyHealth <= 0) {
-                    isGameOver = true;
+        // 4) Check game time
+        SYSTEMS.add(0, TickResource.GAME, TickTracer.WORLD_NANOS, () -> timedOut = checkingGameTime());
+
+        // 5) Donkey falls onto the platforms
+        SYSTEMS.add(TickResource.PLATFORMS, TickResource.DONKEY, TickTracer.WORLD_NANOS,
+                () -> donkey.update(platforms));
+
+        // 6) Search for the way to the floor Mario is on, within the frame's budget of AI work
+        SYSTEMS.add(TickResource.MARIO | TickResource.PLATFORMS, TickResource.ROUTES, TickTracer.AI_NANOS, () -> {
+            if (monkeys != null) {
+                platformGraph.follow(mario.getX(), mario.getBoundingBox().bottom());
+            }
+            JOBS.run();
+        });
+
+        // 7) Monkeys walk their routes, and chasing monkeys look up their way to Mario
+        SYSTEMS.add(TickResource.MARIO | TickResource.PLATFORMS | TickResource.ROUTES, TickResource.MONKEYS,
+                TickTracer.MONKEY_NANOS, () -> {
+            if (monkeys != null) {
+                ParallelChunks.run(monkeys.length, (chunk, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        if (monkeys[i] instanceof ChasingMonkey) {
+                            ((ChasingMonkey) monkeys[i]).chase(mario, platformGraph);
+                        } else {
+                            monkeys[i].update(mario, platforms, worldWidth);
+                        }
+                    }
+                });
+            }
+        });
+
+        // 8) Mario moves, climbs and picks up items
+        SYSTEMS.add(TickResource.LADDERS | TickResource.PLATFORMS,
+                TickResource.MARIO | TickResource.ITEMS | TickResource.GAME, TickTracer.MARIO_NANOS, () -> {
+            boolean hadHammer = mario.holdHammer();
+            mario.update(currentControls, ladders, platforms, hammers, blasters, worldWidth, worldHeight);
+            hammerCollected = !hadHammer && mario.holdHammer();
+        });
+
+        // 9) Bananas of the monkeys still alive fly on
+        SYSTEMS.add(TickResource.MONKEYS, TickResource.BANANAS, TickTracer.PROJECTILE_NANOS, () -> {
+            if (monkeys != null) {
+                ParallelChunks.run(monkeys.length, (chunk, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        // Let intelligent monkey handle its own bananas
+                        if (monkeys[i] instanceof IntelligentMonkey && !monkeys[i].destroyed) {
+                            ((IntelligentMonkey) monkeys[i]).updateBananas(worldWidth);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /** Records how long a part of the frame took when tracing, and returns when the next part starts. */
+    private long tracePhase(int column, long phaseStart) {
+        if (tracer == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        tracer.set(column, now - phaseStart);
+        return now;
+    }
+
+    /** Records the state of the frame that has just been played. */
+    private void traceFrame() {
+        int monkeysAlive = 0;
+        int bananas = 0;
+        if (monkeys != null) {
+            for (Monkey monkey : monkeys) {
+                if (!monkey.isDestroyed()) {
+                    monkeysAlive++;
+                }
+                if (monkey instanceof IntelligentMonkey) {
+                    bananas += ((IntelligentMonkey) monkey).getBananaCount();
                 }
             }
         }
+        tracer.set(TickTracer.LEVEL, level);
+        tracer.set(TickTracer.FRAME, currFrame);
+        tracer.set(TickTracer.MARIO_X, mario.getX());
+        tracer.set(TickTracer.MARIO_Y, mario.getY());
+        tracer.set(TickTracer.MARIO_VELOCITY_Y, mario.getVelocityY());
+        tracer.set(TickTracer.JUMPING, mario.isJumping() ? 1 : 0);
+        tracer.set(TickTracer.WEAPON, mario.holdHammer() ? 1 : mario.holdBlaster() ? 2 : 0);
+        tracer.set(TickTracer.MONKEYS_ALIVE, monkeysAlive);
+        tracer.set(TickTracer.BULLETS, mario.getBullets().size());
+        tracer.set(TickTracer.BANANAS, bananas);
+        tracer.set(TickTracer.SCORE, score);
+        tracer.set(TickTracer.AI_STEPS, JOBS.getStepsThisFrame());
+        tracer.set(TickTracer.AI_PENDING, JOBS.getPendingCount());
+        tracer.set(TickTracer.AI_WAIT, JOBS.getOldestWait());
+        tracer.set(TickTracer.AI_DEFERRED, JOBS.getDeferredCount());
+        tracer.set(TickTracer.AI_STARVED, JOBS.getStarvedFrames());
+        tracer.set(TickTracer.AI_LONGEST_WAIT, JOBS.getLongestWait());
+        tracer.endFrame();
+    }
+
+    /**
+     * Logs the events the systems of this tick found, in the order the systems were added,
+     * and ends the game if the clock ran out.
+     */
+    private void reportSystemEvents() {
+        if (barrelJumped) {
+            report(Telemetry.BARREL_JUMP);
+        }
+        if (timedOut) {
+            gameOver(Telemetry.DEATH_TIMEOUT);
+        }
+        if (hammerCollected) {
+            report(Telemetry.HAMMER_PICKUP);
+        }
+        barrelJumped = false;
+        timedOut = false;
+        hammerCollected = false;
+    }
 
+    /** Ends the game, logging the cause if the game was not already over this frame. */
+    private void gameOver(int cause) {
+        if (!isGameOver) {
+            report(cause);
+        }
+        isGameOver = true;
+    }
 
-        // 11) Display bullet count, health, score and time left
-        if (mario.didCollectBlaster()) {
-            bulletCount += 5;
+    /** Logs a gameplay event when a player is playing. */
+    private void report(int event) {
+        if (telemetry != null) {
+            telemetry.record(event, level, currFrame);
         }
-        if (mario.holdHammer()) {
-            bulletCount = 0;
+    }
+
+    private void checkCount(String objects, int expected, int saved) throws IOException {
+        if (expected != saved) {
+            throw new IOException("Saved state has " + saved + " " + objects + " but level " + level + " has " + expected);
         }
-        displayInfo();
+    }
 
-        // 12) Return game state
-        return isGameOver || isLevelCompleted();
+    /**
+     * Switches the game objects being updated to those of the chunks around Mario.
+     */
+    private void useActiveChunks() {
+        platforms = chunkStreamer.getPlatforms();
+        ladders = chunkStreamer.getLadders();
+        barrels = chunkStreamer.getBarrels();
+        monkeys = chunkStreamer.getMonkeys();
+        startMonkeyTimers();
+    }
+
+    /**
+     * Registers the periodic actions of the monkeys in play; monkeys already registered are left alone.
+     */
+    private void startMonkeyTimers() {
+        if (monkeys != null) {
+            for (Monkey monkey : monkeys) {
+                monkey.startTimers(TIMERS);
+            }
+        }
     }
 
     /**
@@ -347,7 +830,7 @@ public class GamePlayScreen {
      */
     public boolean isLevelCompleted() {
         // Win the game if mario use hammer or blaster to kill the donkey
-        return (mario.hasReached(donkey) && mario.holdHammer()) || donkeyHealth <= 0;
+        return hammeredDonkey || donkeyHealth <= 0;
     }
 
     /**
@@ -364,9 +847,9 @@ public class GamePlayScreen {
     }
 
     /**
-     * Return the Game Properties that being used.
+     * Return the Game settings that being used.
      */
-    public Properties getProps() { return this.GAME_PROPS; }
+    public GameConfig getConfig() { return this.CONFIG; }
 
     /**
      * Return which level it currently is
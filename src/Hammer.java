@@ -4,6 +4,10 @@ import bagel.Image;
 import bagel.util.Colour;
 import bagel.util.Rectangle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Represents a Hammer collectible in the game.
  * The hammer can be collected by the player, at which point it disappears from the screen.
@@ -21,7 +25,7 @@ public class Hammer {
      * @param startY The initial y-coordinate of the hammer.
      */
     public Hammer(double startX, double startY) {
-        this.HAMMER_IMAGE = new Image("res/hammer.png");
+        this.HAMMER_IMAGE = AssetLoader.getImage("res/hammer.png");
         this.X = startX;
         this.Y = startY;
         this.WIDTH = HAMMER_IMAGE.getWidth();
@@ -50,8 +54,8 @@ public class Hammer {
      * Draws the hammer on the screen if it has not been collected.
      */
     public void draw() {
-        if (!isCollected) {
-            HAMMER_IMAGE.draw(X, Y); // Bagel centers images automatically
+        if (!isCollected && Camera.isVisible(X, Y, WIDTH, HEIGHT)) {
+            HAMMER_IMAGE.draw(Camera.toScreenX(X), Camera.toScreenY(Y)); // Bagel centers images automatically
 //            drawBoundingBox(); // Uncomment for debugging
         }
     }
@@ -72,4 +76,23 @@ public class Hammer {
         return isCollected;
     }
 
+    /**
+     * Writes whether the hammer has been collected, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeBoolean(isCollected);
+    }
+
+    /**
+     * Restores whether the hammer has been collected from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        isCollected = in.readBoolean();
+    }
 }
@@ -0,0 +1,395 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * The local high-score table.
+ * Every finished game is appended to a log file as one record:
+ * <pre>
+ *   int    payload length
+ *   payload: timestamp, final score, seconds left, whether the game was won, and each level's score
+ *   long   CRC32 of the payload
+ * </pre>
+ * A record cut short by a crash fails its length or checksum and is removed the next time the table is opened.
+ * An index file holds every score in sorted order plus the best games in full, and how much of the log
+ * it covers, so opening the table only reads the index and the few records written after it.
+ * The table is kept in memory for instant ranking; the files are written on a background thread.
+ */
+public class HighScores {
+    private static final int INDEX_MAGIC = 0x444B4853;   // "DKHS"
+    private static final int INDEX_VERSION = 1;
+    private static final int TOP_COUNT = 10;             // Best games kept in full in the index
+    private static final String LOG_NAME = "highscores.log";
+    private static final String INDEX_NAME = "highscores.idx";
+
+    /**
+     * One finished game.
+     */
+    public static class Entry {
+        private final long timestamp;
+        private final int score;
+        private final int secondsLeft;
+        private final boolean won;
+        private final int[] levelScores;
+
+        /**
+         * Constructs an entry for a finished game.
+         *
+         * @param timestamp   When the game finished, in milliseconds since the epoch.
+         * @param score       The final score.
+         * @param secondsLeft The seconds left on the clock when the game finished.
+         * @param won         Whether the game was won.
+         * @param levelScores The total score of each level played.
+         */
+        public Entry(long timestamp, int score, int secondsLeft, boolean won, int[] levelScores) {
+            this.timestamp = timestamp;
+            this.score = score;
+            this.secondsLeft = secondsLeft;
+            this.won = won;
+            this.levelScores = levelScores;
+        }
+
+        /**
+         * Retrieves when the game finished.
+         * @return When the game finished, in milliseconds since the epoch.
+         */
+        public long getTimestamp() { return timestamp; }
+
+        /**
+         * Retrieves the final score.
+         * @return The final score.
+         */
+        public int getScore() { return score; }
+
+        /**
+         * Retrieves the seconds left on the clock when the game finished.
+         * @return The seconds left on the clock when the game finished.
+         */
+        public int getSecondsLeft() { return secondsLeft; }
+
+        /**
+         * Checks whether the game was won.
+         * @return {@code true} if the game was won, {@code false} otherwise.
+         */
+        public boolean isWon() { return won; }
+
+        /**
+         * Retrieves the total score of each level played.
+         * @return The total score of each level played.
+         */
+        public int[] getLevelScores() { return levelScores.clone(); }
+
+        private int size() {
+            return Long.BYTES + 3 * Integer.BYTES + 1 + levelScores.length * Integer.BYTES;
+        }
+
+        private void writeTo(ByteBuffer buffer) {
+            buffer.putLong(timestamp).putInt(score).putInt(secondsLeft).put((byte) (won ? 1 : 0));
+            buffer.putInt(levelScores.length);
+            for (int levelScore : levelScores) {
+                buffer.putInt(levelScore);
+            }
+        }
+
+        private static Entry readFrom(ByteBuffer buffer) {
+            long timestamp = buffer.getLong();
+            int score = buffer.getInt();
+            int secondsLeft = buffer.getInt();
+            boolean won = buffer.get() != 0;
+            int[] levelScores = new int[buffer.getInt()];
+            for (int i = 0; i < levelScores.length; i++) {
+                levelScores[i] = buffer.getInt();
+            }
+            return new Entry(timestamp, score, secondsLeft, won, levelScores);
+        }
+    }
+
+    private final Path LOG_FILE;
+    private final Path INDEX_FILE;
+    private final ExecutorService WRITER;
+
+    // In-memory table (render thread only)
+    private int[] scores = new int[16];   // Every score, ascending
+    private int scoreCount = 0;
+    private final List<Entry> top = new ArrayList<>();   // Best games, best first
+    private long indexedLength = 0;                      // Log bytes the in-memory table covers
+
+    /**
+     * Opens the high-score table stored in a directory, creating it if needed.
+     *
+     * @param directory The directory holding the log and index files.
+     */
+    public HighScores(Path directory) {
+        this.LOG_FILE = directory.resolve(LOG_NAME);
+        this.INDEX_FILE = directory.resolve(INDEX_NAME);
+        this.WRITER = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "high-scores");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Files.createDirectories(directory);
+            long logLength = Files.exists(LOG_FILE) ? Files.size(LOG_FILE) : 0;
+            if (!readIndex() || logLength < indexedLength) {
+                // No usable index, so every record has to be read once
+                clear();
+            }
+            if (replayLog()) {
+                writeIndexInBackground();
+            }
+        } catch (IOException ex) {
+            // Play on without saved scores
+            System.err.println("High scores unavailable: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Adds a finished game to the table and saves it in the background.
+     *
+     * @param entry The finished game.
+     * @return The rank of the game, where 1 is the best score.
+     */
+    public int record(Entry entry) {
+        add(entry);
+        int rank = getRank(entry.getScore());
+
+        // The files are written on the writer thread in the order games finish
+        List<Entry> topSnapshot = new ArrayList<>(top);
+        int[] scoresSnapshot = Arrays.copyOf(scores, scoreCount);
+        WRITER.submit(() -> {
+            try {
+                long logLength = appendToLog(entry);
+                writeIndex(scoresSnapshot, topSnapshot, logLength);
+            } catch (IOException ex) {
+                System.err.println("Could not save high score: " + ex.getMessage());
+            }
+        });
+        return rank;
+    }
+
+    /**
+     * Finds the rank a score has in the table; equal scores share a rank.
+     *
+     * @param score The score to rank.
+     * @return The rank, where 1 is the best score.
+     */
+    public int getRank(int score) {
+        // Find the first score above this one; everything from there up ranks higher
+        int low = 0;
+        int high = scoreCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[mid] <= score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return scoreCount - low + 1;
+    }
+
+    /**
+     * Retrieves the number of games in the table.
+     * @return The number of games in the table.
+     */
+    public int getGameCount() {
+        return scoreCount;
+    }
+
+    /**
+     * Retrieves the best games, best first.
+     *
+     * @param count The maximum number of games, at most {@value #TOP_COUNT}.
+     * @return The best games.
+     */
+    public List<Entry> getTop(int count) {
+        return Collections.unmodifiableList(new ArrayList<>(top.subList(0, Math.min(count, top.size()))));
+    }
+
+    /** Puts a game into the in-memory table. */
+    private void add(Entry entry) {
+        if (scoreCount == scores.length) {
+            scores = Arrays.copyOf(scores, scores.length * 2);
+        }
+        int position = scoreCount - getRank(entry.getScore()) + 1;
+        System.arraycopy(scores, position, scores, position + 1, scoreCount - position);
+        scores[position] = entry.getScore();
+        scoreCount++;
+
+        // Earlier games stay ahead of later games with the same score
+        int topPosition = 0;
+        while (topPosition < top.size() && top.get(topPosition).getScore() >= entry.getScore()) {
+            topPosition++;
+        }
+        if (topPosition < TOP_COUNT) {
+            top.add(topPosition, entry);
+            if (top.size() > TOP_COUNT) {
+                top.remove(TOP_COUNT);
+            }
+        }
+    }
+
+    private void clear() {
+        scoreCount = 0;
+        top.clear();
+        indexedLength = 0;
+    }
+
+    /**
+     * Reads the records written after the index, and cuts off a record left half written by a crash.
+     *
+     * @return {@code true} if any record was read.
+     */
+    private boolean replayLog() throws IOException {
+        if (!Files.exists(LOG_FILE)) {
+            return false;
+        }
+        boolean replayed = false;
+        try (FileChannel channel = FileChannel.open(LOG_FILE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer tail = ByteBuffer.allocate((int) (size - indexedLength));
+            while (tail.hasRemaining() && channel.read(tail, indexedLength + tail.position()) >= 0) {
+                // Keep reading until the tail is full
+            }
+            tail.flip();
+
+            while (tail.remaining() >= Integer.BYTES) {
+                int start = tail.position();
+                int length = tail.getInt();
+                if (length <= 0 || tail.remaining() < length + Long.BYTES) {
+                    break;
+                }
+                ByteBuffer payload = tail.slice();
+                payload.limit(length);
+                tail.position(tail.position() + length);
+                CRC32 crc = new CRC32();
+                crc.update(payload.duplicate());
+                if (crc.getValue() != tail.getLong()) {
+                    tail.position(start);
+                    break;
+                }
+                add(Entry.readFrom(payload));
+                indexedLength += tail.position() - start;
+                replayed = true;
+            }
+            if (indexedLength < size) {
+                System.err.println("Removing " + (size - indexedLength) + " damaged bytes from the end of " + LOG_FILE);
+                channel.truncate(indexedLength);
+                channel.force(true);
+            }
+        }
+        return replayed;
+    }
+
+    /**
+     * Appends one record to the log and waits for it to reach the disk.
+     *
+     * @return The length of the log afterwards.
+     */
+    private long appendToLog(Entry entry) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(entry.size());
+        entry.writeTo(payload);
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + payload.remaining() + Long.BYTES);
+        record.putInt(payload.remaining()).put(payload).putLong(crc.getValue());
+        record.flip();
+        try (FileChannel channel = FileChannel.open(LOG_FILE, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+            return channel.size();
+        }
+    }
+
+    /**
+     * Loads the index file into the in-memory table.
+     *
+     * @return {@code true} if the index was read, {@code false} if it is missing or damaged.
+     */
+    private boolean readIndex() throws IOException {
+        if (!Files.exists(INDEX_FILE)) {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(INDEX_FILE));
+        try {
+            ByteBuffer body = buffer.slice();
+            body.limit(buffer.remaining() - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if (crc.getValue() != buffer.getLong(buffer.limit() - Long.BYTES)
+                    || body.getInt() != INDEX_MAGIC || body.getInt() != INDEX_VERSION) {
+                System.err.println("Rebuilding damaged " + INDEX_FILE);
+                return false;
+            }
+            indexedLength = body.getLong();
+            scoreCount = body.getInt();
+            scores = new int[Math.max(16, scoreCount)];
+            body.asIntBuffer().get(scores, 0, scoreCount);
+            body.position(body.position() + scoreCount * Integer.BYTES);
+            int topCount = body.getInt();
+            for (int i = 0; i < topCount; i++) {
+                top.add(Entry.readFrom(body));
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            System.err.println("Rebuilding damaged " + INDEX_FILE);
+            clear();
+            return false;
+        }
+    }
+
+    private void writeIndexInBackground() {
+        List<Entry> topSnapshot = new ArrayList<>(top);
+        int[] scoresSnapshot = Arrays.copyOf(scores, scoreCount);
+        long logLength = indexedLength;
+        WRITER.submit(() -> {
+            try {
+                writeIndex(scoresSnapshot, topSnapshot, logLength);
+            } catch (IOException ex) {
+                System.err.println("Could not save high score index: " + ex.getMessage());
+            }
+        });
+    }
+
+    /** Replaces the index file in one step, so a crash leaves either the old or the new index. */
+    private void writeIndex(int[] sortedScores, List<Entry> best, long logLength) throws IOException {
+        int size = 2 * Integer.BYTES + Long.BYTES + Integer.BYTES + sortedScores.length * Integer.BYTES
+                + Integer.BYTES + Long.BYTES;
+        for (Entry entry : best) {
+            size += entry.size();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(INDEX_MAGIC).putInt(INDEX_VERSION).putLong(logLength);
+        buffer.putInt(sortedScores.length);
+        buffer.asIntBuffer().put(sortedScores);
+        buffer.position(buffer.position() + sortedScores.length * Integer.BYTES);
+        buffer.putInt(best.size());
+        for (Entry entry : best) {
+            entry.writeTo(buffer);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+
+        Path temp = INDEX_FILE.resolveSibling(INDEX_NAME + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, INDEX_FILE, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,5 +1,4 @@
 import bagel.*;
-import java.util.Properties;
 
 /**
  * A class representing the home screen of the game.
@@ -17,42 +16,44 @@ public class HomeScreen {
     private final int TITLE_Y;             // Vertical position of the title
     private final int PROMPT_Y;            // Vertical position of the prompt
 
+    private static final int UPLOADS_PER_FRAME = 2;       // Assets turned into textures each frame
+    private static final int LOADING_DIFF_Y = 40;         // Loading progress is shown 40 pixels below the prompt
+    private static final String LOADING_MESSAGE = "LOADING ";
+    // Number keys that start a level directly, starting from level 2
+    private static final Keys[] LEVEL_KEYS = {
+            Keys.NUM_2, Keys.NUM_3, Keys.NUM_4, Keys.NUM_5, Keys.NUM_6, Keys.NUM_7, Keys.NUM_8, Keys.NUM_9
+    };
+
     /**
-     * Constructs the HomeScreen, loading images, fonts, and text properties.
+     * Constructs the HomeScreen from the already loaded images, fonts, and text settings.
      *
-     * @param gameProps Properties file containing image paths and font details.
-     * @param msgProps  Properties file containing title and prompt text.
+     * @param config The game settings containing image paths, font details, title and prompt text.
      */
-    public HomeScreen(Properties gameProps, Properties msgProps) {
-        // Load the background image from properties
-        BACKGROUND_IMAGE = new Image(gameProps.getProperty("backgroundImage"));
+    public HomeScreen(GameConfig config) {
+        // Load the background image
+        BACKGROUND_IMAGE = AssetLoader.getImage(config.getBackgroundImage());
 
-        // Load title and prompt text from properties
-        TITLE = msgProps.getProperty("home.title");
-        PROMPT = msgProps.getProperty("home.prompt");   // e.g., "PRESS ENTER TO START"
+        // Load title and prompt text
+        TITLE = config.getTitle();
+        PROMPT = config.getPrompt();   // e.g., "PRESS ENTER TO START"
 
         // Load title font and its position
-        TITLE_FONT = new Font(
-                gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("home.title.fontSize"))
-        );
-        TITLE_Y = Integer.parseInt(gameProps.getProperty("home.title.y"));
+        TITLE_FONT = AssetLoader.getFont(config.getFontFile(), config.getTitleFontSize());
+        TITLE_Y = config.getTitleY();
 
         // Load prompt font and its position
-        PROMPT_FONT = new Font(
-                gameProps.getProperty("font"),
-                Integer.parseInt(gameProps.getProperty("home.prompt.fontSize"))
-        );
-        PROMPT_Y = Integer.parseInt(gameProps.getProperty("home.prompt.y"));
+        PROMPT_FONT = AssetLoader.getFont(config.getFontFile(), config.getPromptFontSize());
+        PROMPT_Y = config.getPromptY();
     }
 
     /**
      * Displays the home screen with the title and background.
-     * Waits for the player to press ENTER or 2 to proceed.
+     * While it is showing, the preloaded gameplay assets are uploaded a few per frame.
+     * Waits for the player to press ENTER or a number key to proceed.
      *
      * @param input The current mouse/keyboard input.
      * @return 1 if ENTER key is pressed (to start level 1),
-     *         2 if '2' key is pressed (to start level 2),
+     *         n if the 'n' key is pressed (to start level n, for n from 2 to 9),
      *         0 otherwise.
      */
     public int update(Input input) {
@@ -60,21 +61,32 @@ public class HomeScreen {
         BACKGROUND_IMAGE.drawFromTopLeft(0, 0);
 
         // 2) Draw the game title, centered horizontally
-        double titleX = Window.getWidth() / 2 - TITLE_FONT.getWidth(TITLE) / 2;
+        double titleX = ShadowDonkeyKong.getScreenWidth() / 2 - TITLE_FONT.getWidth(TITLE) / 2;
         TITLE_FONT.drawString(TITLE, titleX, TITLE_Y);
 
         // 3) Draw the prompt text (e.g., "PRESS ENTER TO START"), centered horizontally
-        double promptX = Window.getWidth() / 2 - PROMPT_FONT.getWidth(PROMPT) / 2;
+        double promptX = ShadowDonkeyKong.getScreenWidth() / 2 - PROMPT_FONT.getWidth(PROMPT) / 2;
         PROMPT_FONT.drawString(PROMPT, promptX, PROMPT_Y);
 
-        // 4) If ENTER is pressed, transition from the home screen to the game
+        // 4) Keep preloading the gameplay assets while the player reads the screen
+        if (!AssetLoader.isComplete()) {
+            AssetLoader.uploadPending(UPLOADS_PER_FRAME);
+            String loadingText = LOADING_MESSAGE + (int) (AssetLoader.getProgress() * 100) + "%";
+            double loadingX = ShadowDonkeyKong.getScreenWidth() / 2 - PROMPT_FONT.getWidth(loadingText) / 2;
+            PROMPT_FONT.drawString(loadingText, loadingX, PROMPT_Y + LOADING_DIFF_Y);
+        }
+
+        // 5) If ENTER is pressed, transition from the home screen to the game
         if (input.wasPressed(Keys.ENTER)) {
             return 1;
-        } else if (input.wasPressed(Keys.NUM_2)) {
-            return 2;
+        }
+        for (int i = 0; i < LEVEL_KEYS.length; i++) {
+            if (input.wasPressed(LEVEL_KEYS[i])) {
+                return i + 2;
+            }
         }
 
-        // 5) Otherwise, remain on the home screen
+        // 6) Otherwise, remain on the home screen
         return 0;
     }
 }
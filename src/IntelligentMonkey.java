@@ -1,7 +1,11 @@
 import bagel.*;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * Represents the intelligent monkeys class in the game.
@@ -10,8 +14,10 @@ import java.util.Iterator;
  */
 
 public class IntelligentMonkey extends Monkey implements Shootable{
-    private int shootCoolDown = 0;
+    private int shootCoolDown = 0;   // Frames since the last shot, kept while the shot is not scheduled
     private static final int SHOOT_INTERVAL = 300;
+    private TimingWheel timers;              // The wheel the next shot is scheduled on
+    private TimingWheel.Timer shootTimer;    // The next shot, or null while the monkey is out of play
     private ArrayList<Banana> bananas = new ArrayList<>();
 
 
@@ -25,28 +31,65 @@ public class IntelligentMonkey extends Monkey implements Shootable{
      */
     public IntelligentMonkey(double x, double y, String direction, int[] route) {
         super(x, y, direction.equals("right") ? "res/intelli_monkey_right.png" : "res/intelli_monkey_left.png");
-        this.leftSprite = new Image("res/intelli_monkey_left.png");
-        this.rightSprite = new Image("res/intelli_monkey_right.png");
+        this.leftSprite = AssetLoader.getImage("res/intelli_monkey_left.png");
+        this.rightSprite = AssetLoader.getImage("res/intelli_monkey_right.png");
         this.movingRight = direction.equals("right");
         this.route = route;
     }
 
     /**
-     * Update Intelligent Monkey's position by applying gravity and check for platform collisions.
-     * Intelligent Monkeys can shoot banana every 5 seconds when they are alive.
+     * Schedules the next banana, so the monkey shoots every 5 seconds while it is alive.
+     * Does nothing if the shot is already scheduled.
      *
-     * @param mario  Mario object that player controls.
-     * @param platforms An array of platforms Donkey can land on.
+     * @param timers The timing wheel advanced once per frame.
      */
     @Override
-    public void update(Mario mario, Platform[] platforms) {
-        super.update(mario, platforms);
+    public void startTimers(TimingWheel timers) {
+        this.timers = timers;
+        if (shootTimer == null && !destroyed) {
+            shootTimer = timers.schedule(SHOOT_INTERVAL - shootCoolDown, this::onShootTimer);
+        }
+    }
+
+    /**
+     * Unschedules the next banana, keeping the frames since the last shot.
+     */
+    @Override
+    public void stopTimers() {
+        if (shootTimer != null) {
+            shootCoolDown = getShootCoolDown();
+            timers.cancel(shootTimer);
+            shootTimer = null;
+        }
+    }
+
+    /**
+     * Checks whether the next banana is shot within a number of ticks, as it leaves from where the monkey is.
+     *
+     * @param ticks The number of ticks to look ahead.
+     * @return {@code true} if the shot is due within that many ticks, {@code false} otherwise.
+     */
+    @Override
+    protected boolean hasActionDue(int ticks) {
+        return shootTimer != null && shootTimer.getDueFrame() - timers.getFrame() <= ticks;
+    }
 
-        shootCoolDown++;
-        if (shootCoolDown >= SHOOT_INTERVAL) {
-            shootCoolDown = 0;
+    /** Shoots and schedules the next shot. */
+    private void onShootTimer() {
+        shootTimer = null;
+        shootCoolDown = 0;
+        if (!destroyed) {
             shoot();
+            shootTimer = timers.schedule(SHOOT_INTERVAL, this::onShootTimer);
+        }
+    }
+
+    /** Returns the frames since the last shot. */
+    private int getShootCoolDown() {
+        if (shootTimer == null) {
+            return shootCoolDown;
         }
+        return SHOOT_INTERVAL - (int) (shootTimer.getDueFrame() - timers.getFrame());
     }
 
 
@@ -65,26 +108,37 @@ public class IntelligentMonkey extends Monkey implements Shootable{
     /**
      * Update and draw Banana.
      * Bananas are stored in an iterator, being moved if they are not active any more.
-     * @param mario Mario object in the game.
-     * @return {@code true} if Mario touches banana, {@code false} otherwise
+     * Hitting Mario is handled by the collision dispatcher.
+     *
+     * @param worldWidth The width of the level, beyond which bananas are spent.
      */
-    public boolean updateBananasAndCheckMario(Mario mario) {
+    public void updateBananas(double worldWidth) {
         Iterator<Banana> iter = bananas.iterator();
         while (iter.hasNext()) {
             Banana b = iter.next();
-            b.update();
+            b.update(worldWidth);
             b.draw();
 
             if (!b.isActive()) {
                 iter.remove();
-                continue;
-            }
-
-            if (mario.getBoundingBox().intersects(b.getBoundingBox())) {
-                return true;
             }
         }
-        return false;
+    }
+
+    /**
+     * Retrieves the bananas in flight.
+     * @return The bananas in flight.
+     */
+    public List<Banana> getBananas() {
+        return bananas;
+    }
+
+    /**
+     * Retrieves the number of bananas in flight.
+     * @return The number of bananas in flight.
+     */
+    public int getBananaCount() {
+        return bananas.size();
     }
 
 
@@ -95,8 +149,48 @@ public class IntelligentMonkey extends Monkey implements Shootable{
     @Override
     public void destroy() {
         super.destroy(); // Destroyed the current monkey
+        stopTimers();
         for (Banana b : bananas) {
             b.deActive(); // De-active all the banana which this monkey shot
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the monkey's state, its shooting timer and its bananas, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Override
+    public void writeState(DataOutputStream out) throws IOException {
+        super.writeState(out);
+        out.writeInt(getShootCoolDown());
+        out.writeInt(bananas.size());
+        for (Banana banana : bananas) {
+            banana.writeState(out);
+        }
+    }
+
+    /**
+     * Restores the monkey, its shooting timer and its bananas from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    @Override
+    public void readState(DataInputStream in) throws IOException {
+        super.readState(in);
+        // Reschedule the next shot from the saved time if the monkey is in play
+        TimingWheel wheel = timers;
+        stopTimers();
+        shootCoolDown = in.readInt();
+        if (wheel != null) {
+            startTimers(wheel);
+        }
+        bananas.clear();
+        int bananaCount = in.readInt();
+        for (int i = 0; i < bananaCount; i++) {
+            bananas.add(Banana.readState(in));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+import java.util.ArrayDeque;
+
+/**
+ * Spreads AI work, such as searching for the way to Mario, over as many frames as it needs,
+ * so one expensive decision cannot make a frame late. Jobs run a step at a time, oldest first,
+ * until the frame's budget of steps is used up, and carry on where they stopped on the next frame.
+ * The budget counts steps rather than time, so a job finishes on the same frame in play,
+ * in a replay and after resuming a checkpoint.
+ * How long jobs wait is counted, to tell whether the budget is large enough.
+ */
+public class JobQueue {
+    /**
+     * A piece of work that can stop after any step and carry on later.
+     */
+    public interface Job {
+        /**
+         * Does one step of the work, which should take about the same time as any other step.
+         * @return {@code true} if the job is finished, {@code false} if it has more steps.
+         */
+        boolean step();
+    }
+
+    /** A job and the frame it was submitted on. */
+    private static class Entry {
+        private final Job job;
+        private final long submitted;
+
+        private Entry(Job job, long submitted) {
+            this.job = job;
+            this.submitted = submitted;
+        }
+    }
+
+    private final int BUDGET;   // Steps per frame
+    private final ArrayDeque<Entry> JOBS = new ArrayDeque<>();
+    private long frame = 0;
+
+    // Metrics
+    private int stepsThisFrame = 0;
+    private long deferred = 0;        // Times a job was carried over to the next frame
+    private long starvedFrames = 0;   // Frames that ended with work left over
+    private long longestWait = 0;     // Most frames a job took from being submitted to finishing
+
+    /**
+     * Constructs a queue.
+     *
+     * @param budget The number of steps run per frame.
+     */
+    public JobQueue(int budget) {
+        this.BUDGET = budget;
+    }
+
+    /**
+     * Adds a job to the end of the queue. It runs from the next {@link #run}.
+     *
+     * @param job The job.
+     */
+    public void submit(Job job) {
+        JOBS.addLast(new Entry(job, frame));
+    }
+
+    /**
+     * Drops every job, for when the game is restored and the jobs are submitted again.
+     */
+    public void clear() {
+        JOBS.clear();
+    }
+
+    /**
+     * Runs the jobs of this frame until they are all finished or the budget is used up.
+     */
+    public void run() {
+        frame++;
+        stepsThisFrame = 0;
+        while (!JOBS.isEmpty() && stepsThisFrame < BUDGET) {
+            Entry entry = JOBS.peekFirst();
+            stepsThisFrame++;
+            if (entry.job.step()) {
+                JOBS.pollFirst();
+                longestWait = Math.max(longestWait, frame - entry.submitted);
+            }
+        }
+        if (!JOBS.isEmpty()) {
+            starvedFrames++;
+            deferred += JOBS.size();
+        }
+    }
+
+    /**
+     * Retrieves the number of steps run on the last frame.
+     * @return The number of steps run on the last frame.
+     */
+    public int getStepsThisFrame() {
+        return stepsThisFrame;
+    }
+
+    /**
+     * Retrieves the number of jobs waiting to finish.
+     * @return The number of jobs waiting to finish.
+     */
+    public int getPendingCount() {
+        return JOBS.size();
+    }
+
+    /**
+     * Retrieves how long the oldest job has been waiting.
+     * @return The frames since the oldest waiting job was submitted, or 0 if no job is waiting.
+     */
+    public long getOldestWait() {
+        return JOBS.isEmpty() ? 0 : frame - JOBS.peekFirst().submitted;
+    }
+
+    /**
+     * Retrieves the number of times a job was carried over to the next frame.
+     * @return The number of times a job was carried over to the next frame.
+     */
+    public long getDeferredCount() {
+        return deferred;
+    }
+
+    /**
+     * Retrieves the number of frames that ended before every job had finished.
+     * @return The number of frames that ended before every job had finished.
+     */
+    public long getStarvedFrames() {
+        return starvedFrames;
+    }
+
+    /**
+     * Retrieves the most frames a job has taken from being submitted to finishing.
+     * @return The most frames a job has taken from being submitted to finishing.
+     */
+    public long getLongestWait() {
+        return longestWait;
+    }
+}
@@ -2,6 +2,10 @@ import bagel.*;
 import bagel.util.Colour;
 import bagel.util.Rectangle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
 /**
  * Represents a ladder in the game.
  * The ladder falls under gravity until it lands on a platform.
@@ -10,10 +14,11 @@ public class Ladder {
     private final Image LADDER_IMAGE;
     private final double X; // constant because x does not change, only relying on falling
     private double y;
-    public static double width;
-    public static double height;
+    private final double WIDTH;
+    private final double HEIGHT;
 
     private double velocityY = 0; // Current vertical velocity due to gravity
+    private boolean isSettled;    // Whether the ladder rests on a platform and no longer moves
 
     /**
      * Constructs a ladder at the specified position.
@@ -22,27 +27,48 @@ public class Ladder {
      * @param startY The initial y-coordinate.
      */
     public Ladder(double startX, double startY) {
-        this.LADDER_IMAGE = new Image("res/ladder.png");
+        this(startX, startY, false);
+    }
+
+    /**
+     * Constructs a ladder at the specified position, which may already be its resting position.
+     *
+     * @param startX  The initial x-coordinate.
+     * @param startY  The initial y-coordinate.
+     * @param settled {@code true} if the ladder already rests on a platform.
+     */
+    public Ladder(double startX, double startY, boolean settled) {
+        this.LADDER_IMAGE = AssetLoader.getImage("res/ladder.png");
         this.X = startX;
         this.y = startY;
-        width = LADDER_IMAGE.getWidth();
-        height = LADDER_IMAGE.getHeight();
+        this.isSettled = settled;
+        this.WIDTH = LADDER_IMAGE.getWidth();
+        this.HEIGHT = LADDER_IMAGE.getHeight();
     }
 
     /**
      * Draws the ladder on the screen.
      */
     public void draw() {
-        LADDER_IMAGE.draw(X, y);
+        if (Camera.isVisible(X, y, WIDTH, HEIGHT)) {
+            LADDER_IMAGE.draw(Camera.toScreenX(X), Camera.toScreenY(y));
+        }
     }
 
     /**
      * Updates the ladder's position by applying gravity and checking for platform collisions.
      * If a collision is detected, the ladder stops falling and rests on the platform.
+     * Once a frame leaves the ladder where it was, it has settled and only needs drawing.
      *
      * @param platforms An array of platforms in the game.
      */
     public void update(Platform[] platforms) {
+        if (isSettled) {
+            draw();
+            return;
+        }
+        double previousY = y;
+
         // 1) Apply gravity
         velocityY += Physics.LADDER_GRAVITY;
 
@@ -63,6 +89,7 @@ public class Ladder {
                         - (this.getHeight() / 2);     // Ladder height offset
 
                 velocityY = 0; // Stop falling
+                isSettled = (y == previousY);
                 break; // Stop checking further once the ladder lands
             }
         }
@@ -104,13 +131,22 @@ public class Ladder {
         return y;
     }
 
+    /**
+     * Checks whether the ladder rests on a platform and no longer moves.
+     *
+     * @return {@code true} if the ladder has settled, {@code false} otherwise.
+     */
+    public boolean isSettled() {
+        return isSettled;
+    }
+
     /**
      * Gets the width of the ladder.
      *
      * @return The width of the ladder.
      */
     public double getWidth() {
-        return width;
+        return WIDTH;
     }
 
     /**
@@ -119,6 +155,30 @@ public class Ladder {
      * @return The height of the ladder.
      */
     public double getHeight() {
-        return height;
+        return HEIGHT;
+    }
+
+    /**
+     * Writes the ladder's fall, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(y);
+        out.writeDouble(velocityY);
+        out.writeBoolean(isSettled);
+    }
+
+    /**
+     * Restores the ladder's fall from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        y = in.readDouble();
+        velocityY = in.readDouble();
+        isSettled = in.readBoolean();
     }
 }
@@ -0,0 +1,176 @@
+import bagel.util.Rectangle;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Works out where Donkey, the ladders and the barrels of a level come to rest before the level is played.
+ * In a level file they are placed in mid-air and fall onto the platforms during the first frames.
+ * Baking runs the same falling steps the game objects use, frame by frame, until each object
+ * stays where it is, and stores that resting position so the objects start at rest and do not
+ * have to fall at all. Objects that fall past every platform, or never come to rest, are reported.
+ */
+public class LevelBaker {
+    private static final String PLATFORM_IMAGE = "res/platform.png";
+    private static final String LADDER_IMAGE = "res/ladder.png";
+    private static final String BARREL_IMAGE = "res/barrel.png";
+    private static final String DONKEY_IMAGE = "res/donkey_kong.png";
+    private static final int MAX_SETTLE_FRAMES = 10000;   // An object still moving after this never rests
+
+    // Sprite sizes as {width, height}, read from the image files so baking works without a window
+    private static final Map<String, double[]> SIZES = new ConcurrentHashMap<>();
+
+    /**
+     * Bakes a level, moving Donkey, the ladders and the barrels to where they come to rest.
+     * Objects that never come to rest keep their starting position and fall as before.
+     *
+     * @param data     The parsed level.
+     * @param problems Receives a description of every object that never comes to rest.
+     * @return The baked level, or the level unchanged if the sprites cannot be read.
+     */
+    public static LevelData bake(LevelData data, List<String> problems) {
+        double[] platformSize;
+        double[] ladderSize;
+        double[] barrelSize;
+        double[] donkeySize;
+        try {
+            platformSize = spriteSize(PLATFORM_IMAGE);
+            ladderSize = spriteSize(LADDER_IMAGE);
+            barrelSize = spriteSize(BARREL_IMAGE);
+            donkeySize = spriteSize(DONKEY_IMAGE);
+        } catch (IOException ex) {
+            problems.add("not baked: " + ex.getMessage());
+            return data;
+        }
+
+        // 1) Platforms never move, so their bounding boxes are built once
+        Rectangle[] platforms = new Rectangle[data.platforms.length / 2];
+        double lowestBottom = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < platforms.length; i++) {
+            platforms[i] = box(data.platforms[2 * i], data.platforms[2 * i + 1], platformSize);
+            lowestBottom = Math.max(lowestBottom, platforms[i].bottom());
+        }
+
+        // 2) Settle Donkey
+        double donkeyY = data.donkeyY;
+        boolean donkeySettled = false;
+        double restY = settle(data.donkeyX, data.donkeyY, donkeySize,
+                Physics.DONKEY_GRAVITY, Physics.DONKEY_TERMINAL_VELOCITY, true, platforms, lowestBottom);
+        if (Double.isNaN(restY)) {
+            problems.add("Donkey at " + point(data.donkeyX, data.donkeyY) + " never comes to rest on a platform");
+        } else {
+            donkeyY = restY;
+            donkeySettled = true;
+        }
+
+        // 3) Settle the ladders
+        double[] ladders = data.ladders.clone();
+        boolean[] laddersSettled = new boolean[ladders.length / 2];
+        for (int i = 0; i < laddersSettled.length; i++) {
+            restY = settle(ladders[2 * i], ladders[2 * i + 1], ladderSize,
+                    Physics.LADDER_GRAVITY, Physics.LADDER_TERMINAL_VELOCITY, false, platforms, lowestBottom);
+            if (Double.isNaN(restY)) {
+                problems.add("ladder " + (i + 1) + " at " + point(ladders[2 * i], ladders[2 * i + 1])
+                        + " never comes to rest on a platform");
+            } else {
+                ladders[2 * i + 1] = restY;
+                laddersSettled[i] = true;
+            }
+        }
+
+        // 4) Settle the barrels
+        double[] barrels = data.barrels.clone();
+        boolean[] barrelsSettled = new boolean[barrels.length / 2];
+        for (int i = 0; i < barrelsSettled.length; i++) {
+            restY = settle(barrels[2 * i], barrels[2 * i + 1], barrelSize,
+                    Physics.BARREL_GRAVITY, Physics.BARREL_TERMINAL_VELOCITY, false, platforms, lowestBottom);
+            if (Double.isNaN(restY)) {
+                problems.add("barrel " + (i + 1) + " at " + point(barrels[2 * i], barrels[2 * i + 1])
+                        + " never comes to rest on a platform");
+            } else {
+                barrels[2 * i + 1] = restY;
+                barrelsSettled[i] = true;
+            }
+        }
+
+        return new LevelData(data.level, data.marioX, data.marioY, data.donkeyX, donkeyY,
+                data.worldWidth, data.worldHeight, data.platforms, ladders, barrels,
+                data.hammers, data.blasters, data.monkeyTypes, data.monkeys,
+                data.monkeysFacingRight, data.monkeyRoutes,
+                donkeySettled, laddersSettled, barrelsSettled);
+    }
+
+    /**
+     * Runs the falling steps of one object until a frame leaves it where it was.
+     * The steps match {@link Ladder#update}, {@link Barrel#update} and {@link Donkey#update}:
+     * gravity, a limit on the falling speed, then snapping onto the first platform it touches.
+     *
+     * @param moveBeforeLimit {@code true} if the object moves before its speed is limited, as Donkey does.
+     * @return The resting y-coordinate, or NaN if the object never comes to rest.
+     */
+    private static double settle(double x, double y, double[] size, double gravity, double terminalVelocity,
+                                 boolean moveBeforeLimit, Rectangle[] platforms, double lowestBottom) {
+        double velocityY = 0;
+        for (int frame = 0; frame < MAX_SETTLE_FRAMES; frame++) {
+            double previousY = y;
+            velocityY += gravity;
+            if (moveBeforeLimit) {
+                y += velocityY;
+                velocityY = Math.min(velocityY, terminalVelocity);
+            } else {
+                velocityY = Math.min(velocityY, terminalVelocity);
+                y += velocityY;
+            }
+
+            boolean landed = false;
+            Rectangle bounds = box(x, y, size);
+            for (Rectangle platform : platforms) {
+                if (bounds.intersects(platform)) {
+                    y = platform.top() - size[1] / 2;
+                    velocityY = 0;
+                    landed = true;
+                    break;
+                }
+            }
+            if (landed && y == previousY) {
+                return y;
+            }
+            if (!landed && y - size[1] / 2 > lowestBottom) {
+                // Below every platform, so it can only keep falling
+                return Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+
+    /** Returns a centre-based bounding box, matching how the game objects build theirs. */
+    private static Rectangle box(double x, double y, double[] size) {
+        return new Rectangle(x - size[0] / 2, y - size[1] / 2, size[0], size[1]);
+    }
+
+    /** Reads the size of a sprite, using the pixels the asset loader has already decoded if it can. */
+    private static double[] spriteSize(String path) throws IOException {
+        double[] size = SIZES.get(path);
+        if (size == null) {
+            BufferedImage image = AssetLoader.getPixels(path);
+            if (image == null) {
+                image = ImageIO.read(new File(path));
+            }
+            if (image == null) {
+                throw new IOException(path + " is not a readable image");
+            }
+            size = new double[] {image.getWidth(), image.getHeight()};
+            SIZES.put(path, size);
+        }
+        return size;
+    }
+
+    private static String point(double x, double y) {
+        return "(" + x + "," + y + ")";
+    }
+}
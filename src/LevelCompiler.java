@@ -0,0 +1,49 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compiles the level definitions in the properties file into compiled level files.
+ * Run it after editing a level so that mistakes are reported here rather than when the level is played:
+ * <pre>
+ *   java LevelCompiler [res/app.properties]
+ * </pre>
+ * Every level with a "mario.levelN" entry is baked (see {@link LevelBaker}) and compiled to
+ * res/levels/levelN.lvl. A level with an object that never comes to rest on a platform is not compiled.
+ */
+public class LevelCompiler {
+    /**
+     * Compiles every level and exits with a non-zero status if any of them is invalid.
+     *
+     * @param args Optionally, the path of the properties file.
+     */
+    public static void main(String[] args) {
+        String source = args.length > 0 ? args[0] : "res/app.properties";
+        Properties props = IOUtils.readPropertiesFile(source);
+
+        boolean failed = false;
+        for (int level : LevelData.findLevels(props)) {
+            try {
+                List<String> problems = new ArrayList<>();
+                LevelData data = LevelBaker.bake(LevelData.parse(props, level), problems);
+                if (!problems.isEmpty()) {
+                    for (String problem : problems) {
+                        System.err.println("Level " + level + ": " + problem);
+                    }
+                    failed = true;
+                    continue;
+                }
+                LevelFile.write(data, Paths.get(LevelFile.pathFor(level)));
+                System.out.println("Compiled level " + level + " to " + LevelFile.pathFor(level));
+            } catch (IllegalArgumentException | IOException ex) {
+                System.err.println("Level " + level + ": " + ex.getMessage());
+                failed = true;
+            }
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * The definition of one level: where every game object starts, stored in primitive arrays.
+ * Positions are stored as x,y pairs, so the i-th object is at index 2*i and 2*i+1.
+ * A level is read either from a compiled level file or from the properties file,
+ * and is never changed afterwards. A baked level also records which of Donkey, the ladders
+ * and the barrels already rest on a platform; see {@link LevelBaker}.
+ */
+public class LevelData {
+    /** Monkey type stored for a {@link NormalMonkey}. */
+    public static final byte NORMAL_MONKEY = 0;
+    /** Monkey type stored for an {@link IntelligentMonkey}. */
+    public static final byte INTELLIGENT_MONKEY = 1;
+    /** Monkey type stored for a {@link ChasingMonkey}, which has no route. */
+    public static final byte CHASING_MONKEY = 2;
+
+    private static final String PROPERTIES_FILE = "res/app.properties";
+    private static final String LEVEL_KEY_PREFIX = "mario.level";   // Every level defines Mario's start
+
+    final int level;
+    final double marioX, marioY;
+    final double donkeyX, donkeyY;
+    final double worldWidth, worldHeight;   // 0 when the level uses the window size
+    final double[] platforms;
+    final double[] ladders;
+    final double[] barrels;
+    final double[] hammers;
+    final double[] blasters;
+    final byte[] monkeyTypes;
+    final double[] monkeys;
+    final boolean[] monkeysFacingRight;
+    final int[][] monkeyRoutes;
+    final boolean donkeySettled;       // Whether Donkey starts at his resting position
+    final boolean[] laddersSettled;    // Whether each ladder starts at its resting position
+    final boolean[] barrelsSettled;    // Whether each barrel starts at its resting position
+
+    /**
+     * Constructs a level definition from its primitive fields.
+     */
+    LevelData(int level, double marioX, double marioY, double donkeyX, double donkeyY,
+              double worldWidth, double worldHeight, double[] platforms, double[] ladders,
+              double[] barrels, double[] hammers, double[] blasters, byte[] monkeyTypes,
+              double[] monkeys, boolean[] monkeysFacingRight, int[][] monkeyRoutes,
+              boolean donkeySettled, boolean[] laddersSettled, boolean[] barrelsSettled) {
+        this.level = level;
+        this.marioX = marioX;
+        this.marioY = marioY;
+        this.donkeyX = donkeyX;
+        this.donkeyY = donkeyY;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.platforms = platforms;
+        this.ladders = ladders;
+        this.barrels = barrels;
+        this.hammers = hammers;
+        this.blasters = blasters;
+        this.monkeyTypes = monkeyTypes;
+        this.monkeys = monkeys;
+        this.monkeysFacingRight = monkeysFacingRight;
+        this.monkeyRoutes = monkeyRoutes;
+        this.donkeySettled = donkeySettled;
+        this.laddersSettled = laddersSettled;
+        this.barrelsSettled = barrelsSettled;
+    }
+
+    /**
+     * Loads a level, using its compiled level file when that file is at least as new as
+     * the properties file, and parsing and baking the properties otherwise.
+     *
+     * @param props The game properties containing the level definitions.
+     * @param level The level number.
+     * @return The level definition.
+     */
+    public static LevelData load(Properties props, int level) {
+        File compiled = new File(LevelFile.pathFor(level));
+        if (compiled.isFile() && compiled.lastModified() >= new File(PROPERTIES_FILE).lastModified()) {
+            try {
+                return LevelFile.read(compiled.toPath());
+            } catch (Exception ex) {
+                // A damaged or outdated file is not fatal; the properties still describe the level
+                System.err.println("Ignoring " + compiled + ": " + ex.getMessage());
+            }
+        }
+        List<String> problems = new ArrayList<>();
+        LevelData data = LevelBaker.bake(parse(props, level), problems);
+        for (String problem : problems) {
+            System.err.println("Level " + level + ": " + problem);
+        }
+        return data;
+    }
+
+    /**
+     * Parses a level from the properties file, with every object at its starting position.
+     *
+     * @param props The game properties containing the level definitions.
+     * @param level The level number.
+     * @return The level definition.
+     * @throws IllegalArgumentException if an entry is missing or malformed.
+     */
+    public static LevelData parse(Properties props, int level) {
+        String suffix = "level" + level;
+
+        double[] mario = parsePoint(props, "mario." + suffix);
+        double[] donkey = parsePoint(props, "donkey." + suffix);
+        double[] world = props.getProperty("world." + suffix) == null
+                ? new double[2] : parsePoint(props, "world." + suffix);
+
+        // Platforms are a single ';' separated list
+        String platformKey = "platforms." + suffix;
+        String[] platformEntries = require(props, platformKey).split(";");
+        double[] platforms = new double[platformEntries.length * 2];
+        for (int i = 0; i < platformEntries.length; i++) {
+            double[] point = parsePoint(platformKey, platformEntries[i]);
+            platforms[2 * i] = point[0];
+            platforms[2 * i + 1] = point[1];
+        }
+
+        // Monkeys of every kind share one set of arrays
+        int normalCount = parseCount(props, "normalMonkey." + suffix);
+        int intelCount = parseCount(props, "intelligentMonkey." + suffix);
+        int chasingCount = parseCount(props, "chasingMonkey." + suffix);
+        int monkeyCount = normalCount + intelCount + chasingCount;
+        byte[] monkeyTypes = new byte[monkeyCount];
+        double[] monkeys = new double[monkeyCount * 2];
+        boolean[] facingRight = new boolean[monkeyCount];
+        int[][] routes = new int[monkeyCount][];
+        for (int i = 0; i < normalCount + intelCount; i++) {
+            boolean normal = i < normalCount;
+            String key = (normal ? "normalMonkey." : "intelligentMonkey.") + suffix + "."
+                    + (normal ? i + 1 : i - normalCount + 1);
+            String[] parts = require(props, key).split(";");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException(key + " must be x,y;direction;route");
+            }
+            double[] point = parsePoint(key, parts[0]);
+            monkeyTypes[i] = normal ? NORMAL_MONKEY : INTELLIGENT_MONKEY;
+            monkeys[2 * i] = point[0];
+            monkeys[2 * i + 1] = point[1];
+            if (!parts[1].equals("left") && !parts[1].equals("right")) {
+                throw new IllegalArgumentException(key + " has direction '" + parts[1] + "', expected left or right");
+            }
+            facingRight[i] = parts[1].equals("right");
+            String[] routeStr = parts[2].split(",");
+            routes[i] = new int[routeStr.length];
+            for (int j = 0; j < routeStr.length; j++) {
+                routes[i][j] = parseInt(key, routeStr[j]);
+                if (routes[i][j] <= 0) {
+                    throw new IllegalArgumentException(key + " has a route distance that is not positive");
+                }
+            }
+        }
+        for (int i = normalCount + intelCount; i < monkeyCount; i++) {
+            // Chasing monkeys find their own way, so they only have a position and a direction
+            String key = "chasingMonkey." + suffix + "." + (i - normalCount - intelCount + 1);
+            String[] parts = require(props, key).split(";");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(key + " must be x,y;direction");
+            }
+            double[] point = parsePoint(key, parts[0]);
+            monkeyTypes[i] = CHASING_MONKEY;
+            monkeys[2 * i] = point[0];
+            monkeys[2 * i + 1] = point[1];
+            if (!parts[1].equals("left") && !parts[1].equals("right")) {
+                throw new IllegalArgumentException(key + " has direction '" + parts[1] + "', expected left or right");
+            }
+            facingRight[i] = parts[1].equals("right");
+            routes[i] = new int[0];
+        }
+
+        double[] ladders = parsePoints(props, "ladder." + suffix);
+        double[] barrels = parsePoints(props, "barrel." + suffix);
+        return new LevelData(level, mario[0], mario[1], donkey[0], donkey[1], world[0], world[1],
+                platforms, ladders, barrels,
+                parsePoints(props, "hammer." + suffix),
+                parsePoints(props, "blaster." + suffix),
+                monkeyTypes, monkeys, facingRight, routes,
+                false, new boolean[ladders.length / 2], new boolean[barrels.length / 2]);
+    }
+
+    /**
+     * Finds the numbers of all levels defined in the properties.
+     *
+     * @param props The game properties.
+     * @return The level numbers in ascending order.
+     */
+    public static TreeSet<Integer> findLevels(Properties props) {
+        TreeSet<Integer> levels = new TreeSet<>();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(LEVEL_KEY_PREFIX)) {
+                try {
+                    levels.add(Integer.parseInt(key.substring(LEVEL_KEY_PREFIX.length())));
+                } catch (NumberFormatException ex) {
+                    System.err.println("Ignoring " + key + ": not a level number");
+                }
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Retrieves the level number.
+     * @return The level number.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Creates the i-th platform of the level.
+     *
+     * @param i The index of the platform.
+     * @return A new {@link Platform}.
+     */
+    public Platform createPlatform(int i) {
+        return new Platform(platforms[2 * i], platforms[2 * i + 1]);
+    }
+
+    /**
+     * Creates the i-th ladder of the level.
+     *
+     * @param i The index of the ladder.
+     * @return A new {@link Ladder}, already resting if the level was baked that way.
+     */
+    public Ladder createLadder(int i) {
+        return new Ladder(ladders[2 * i], ladders[2 * i + 1], laddersSettled[i]);
+    }
+
+    /**
+     * Creates the i-th barrel of the level.
+     *
+     * @param i The index of the barrel.
+     * @return A new {@link Barrel}, already resting if the level was baked that way.
+     */
+    public Barrel createBarrel(int i) {
+        return new Barrel(barrels[2 * i], barrels[2 * i + 1], barrelsSettled[i]);
+    }
+
+    /**
+     * Creates the i-th monkey of the level, of the type it was defined with.
+     *
+     * @param i The index of the monkey.
+     * @return A new {@link Monkey} with its own copy of its route.
+     */
+    public Monkey createMonkey(int i) {
+        double x = monkeys[2 * i];
+        double y = monkeys[2 * i + 1];
+        String direction = monkeysFacingRight[i] ? "right" : "left";
+        int[] route = monkeyRoutes[i].clone();
+        if (monkeyTypes[i] == INTELLIGENT_MONKEY) {
+            return new IntelligentMonkey(x, y, direction, route);
+        } else if (monkeyTypes[i] == CHASING_MONKEY) {
+            return new ChasingMonkey(x, y, direction);
+        }
+        return new NormalMonkey(x, y, direction, route);
+    }
+
+    /**
+     * Checks whether another level definition places every game object in the same way.
+     *
+     * @param other The object to compare with.
+     * @return {@code true} if both define the same level, {@code false} otherwise.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof LevelData)) {
+            return false;
+        }
+        LevelData data = (LevelData) other;
+        return level == data.level
+                && marioX == data.marioX && marioY == data.marioY
+                && donkeyX == data.donkeyX && donkeyY == data.donkeyY
+                && worldWidth == data.worldWidth && worldHeight == data.worldHeight
+                && Arrays.equals(platforms, data.platforms)
+                && Arrays.equals(ladders, data.ladders)
+                && Arrays.equals(barrels, data.barrels)
+                && Arrays.equals(hammers, data.hammers)
+                && Arrays.equals(blasters, data.blasters)
+                && Arrays.equals(monkeyTypes, data.monkeyTypes)
+                && Arrays.equals(monkeys, data.monkeys)
+                && Arrays.equals(monkeysFacingRight, data.monkeysFacingRight)
+                && Arrays.deepEquals(monkeyRoutes, data.monkeyRoutes)
+                && donkeySettled == data.donkeySettled
+                && Arrays.equals(laddersSettled, data.laddersSettled)
+                && Arrays.equals(barrelsSettled, data.barrelsSettled);
+    }
+
+    /**
+     * Computes a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return The hash code of the level definition.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Integer.hashCode(level) + Arrays.hashCode(platforms);
+    }
+
+    /** Parses the numbered entries "prefix.1" to "prefix.count"; a missing count means none. */
+    private static double[] parsePoints(Properties props, String prefix) {
+        int count = parseCount(props, prefix);
+        double[] points = new double[count * 2];
+        for (int i = 1; i <= count; i++) {
+            double[] point = parsePoint(props, prefix + "." + i);
+            points[2 * (i - 1)] = point[0];
+            points[2 * (i - 1) + 1] = point[1];
+        }
+        return points;
+    }
+
+    private static int parseCount(Properties props, String prefix) {
+        String value = props.getProperty(prefix + ".count");
+        if (value == null) {
+            return 0;
+        }
+        int count = parseInt(prefix + ".count", value);
+        if (count < 0) {
+            throw new IllegalArgumentException(prefix + ".count must not be negative");
+        }
+        return count;
+    }
+
+    private static double[] parsePoint(Properties props, String key) {
+        return parsePoint(key, require(props, key));
+    }
+
+    private static double[] parsePoint(String key, String value) {
+        String[] coords = value.split(",");
+        if (coords.length != 2) {
+            throw new IllegalArgumentException(key + " must be x,y but was '" + value + "'");
+        }
+        try {
+            return new double[] {Double.parseDouble(coords[0].trim()), Double.parseDouble(coords[1].trim())};
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(key + " has a coordinate that is not a number: '" + value + "'");
+        }
+    }
+
+    private static int parseInt(String key, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(key + " has a value that is not a whole number: '" + value + "'");
+        }
+    }
+
+    private static String require(Properties props, String key) {
+        String value = props.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing level entry " + key);
+        }
+        return value;
+    }
+}
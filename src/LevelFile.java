@@ -0,0 +1,203 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes compiled level files.
+ * A compiled level is a small header followed by the level's primitive arrays:
+ * <pre>
+ *   int    magic ("DKLV")
+ *   int    format version
+ *   int    payload length in bytes
+ *   long   CRC32 of the payload
+ *   payload: level, Mario, Donkey and world size, then each object list as a count and its values,
+ *            then one settled flag for Donkey, each ladder and each barrel
+ * </pre>
+ * Files are memory-mapped when read, and the arrays are copied out in bulk.
+ */
+public class LevelFile {
+    private static final int MAGIC = 0x444B4C56;   // "DKLV"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+    private static final String LEVEL_DIRECTORY = "res/levels/";
+
+    /**
+     * Returns where the compiled file of a level lives.
+     *
+     * @param level The level number.
+     * @return The path of the compiled level file.
+     */
+    public static String pathFor(int level) {
+        return LEVEL_DIRECTORY + "level" + level + ".lvl";
+    }
+
+    /**
+     * Writes a level to a compiled file. The file is replaced in one step,
+     * so a running game never sees a half written level.
+     *
+     * @param data The level to write.
+     * @param path Where to write it.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(LevelData data, Path path) throws IOException {
+        ByteBuffer payload = ByteBuffer.allocate(payloadSize(data)).order(ByteOrder.LITTLE_ENDIAN);
+        payload.putInt(data.level);
+        payload.putDouble(data.marioX).putDouble(data.marioY);
+        payload.putDouble(data.donkeyX).putDouble(data.donkeyY);
+        payload.putDouble(data.worldWidth).putDouble(data.worldHeight);
+        putPoints(payload, data.platforms);
+        putPoints(payload, data.ladders);
+        putPoints(payload, data.barrels);
+        putPoints(payload, data.hammers);
+        putPoints(payload, data.blasters);
+        payload.putInt(data.monkeyTypes.length);
+        payload.put(data.monkeyTypes);
+        payload.asDoubleBuffer().put(data.monkeys);
+        payload.position(payload.position() + data.monkeys.length * Double.BYTES);
+        for (int i = 0; i < data.monkeyTypes.length; i++) {
+            payload.put((byte) (data.monkeysFacingRight[i] ? 1 : 0));
+            payload.putInt(data.monkeyRoutes[i].length);
+            payload.asIntBuffer().put(data.monkeyRoutes[i]);
+            payload.position(payload.position() + data.monkeyRoutes[i].length * Integer.BYTES);
+        }
+        payload.put((byte) (data.donkeySettled ? 1 : 0));
+        putFlags(payload, data.laddersSettled);
+        putFlags(payload, data.barrelsSettled);
+        payload.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+
+        ByteBuffer file = ByteBuffer.allocate(HEADER_BYTES + payload.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        file.putInt(MAGIC).putInt(VERSION).putInt(payload.remaining()).putLong(crc.getValue());
+        file.put(payload);
+
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temp, file.array());
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a compiled level file.
+     *
+     * @param path The compiled level file.
+     * @return The level definition.
+     * @throws IOException if the file cannot be read, is from another version, or is damaged.
+     */
+    public static LevelData read(Path path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r");
+             FileChannel channel = file.getChannel()) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            // 1) Check the header
+            if (mapped.remaining() < HEADER_BYTES || mapped.getInt() != MAGIC) {
+                throw new IOException(path + " is not a compiled level");
+            }
+            int version = mapped.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + " has format version " + version + ", expected " + VERSION);
+            }
+            int length = mapped.getInt();
+            long checksum = mapped.getLong();
+            if (length != mapped.remaining()) {
+                throw new IOException(path + " is truncated");
+            }
+            ByteBuffer payload = mapped.slice().order(ByteOrder.LITTLE_ENDIAN);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                throw new IOException(path + " failed its checksum");
+            }
+
+            // 2) Read the level straight from the mapped bytes
+            int level = payload.getInt();
+            double marioX = payload.getDouble();
+            double marioY = payload.getDouble();
+            double donkeyX = payload.getDouble();
+            double donkeyY = payload.getDouble();
+            double worldWidth = payload.getDouble();
+            double worldHeight = payload.getDouble();
+            double[] platforms = getPoints(payload);
+            double[] ladders = getPoints(payload);
+            double[] barrels = getPoints(payload);
+            double[] hammers = getPoints(payload);
+            double[] blasters = getPoints(payload);
+            int monkeyCount = payload.getInt();
+            byte[] monkeyTypes = new byte[monkeyCount];
+            payload.get(monkeyTypes);
+            double[] monkeys = getDoubles(payload, monkeyCount * 2);
+            boolean[] facingRight = new boolean[monkeyCount];
+            int[][] routes = new int[monkeyCount][];
+            for (int i = 0; i < monkeyCount; i++) {
+                facingRight[i] = payload.get() != 0;
+                routes[i] = new int[payload.getInt()];
+                payload.asIntBuffer().get(routes[i]);
+                payload.position(payload.position() + routes[i].length * Integer.BYTES);
+            }
+            boolean donkeySettled = payload.get() != 0;
+            boolean[] laddersSettled = getFlags(payload, ladders.length / 2);
+            boolean[] barrelsSettled = getFlags(payload, barrels.length / 2);
+            return new LevelData(level, marioX, marioY, donkeyX, donkeyY, worldWidth, worldHeight,
+                    platforms, ladders, barrels, hammers, blasters, monkeyTypes, monkeys, facingRight, routes,
+                    donkeySettled, laddersSettled, barrelsSettled);
+        } catch (RuntimeException ex) {
+            // Buffer underflows and negative sizes mean the payload does not match its header
+            throw new IOException(path + " is damaged: " + ex, ex);
+        }
+    }
+
+    private static int payloadSize(LevelData data) {
+        int size = Integer.BYTES + 6 * Double.BYTES;
+        for (double[] points : new double[][] {data.platforms, data.ladders, data.barrels, data.hammers, data.blasters}) {
+            size += Integer.BYTES + points.length * Double.BYTES;
+        }
+        size += Integer.BYTES + data.monkeyTypes.length + data.monkeys.length * Double.BYTES;
+        for (int[] route : data.monkeyRoutes) {
+            size += 1 + Integer.BYTES + route.length * Integer.BYTES;
+        }
+        size += 1 + data.laddersSettled.length + data.barrelsSettled.length;
+        return size;
+    }
+
+    /** Writes a list of x,y pairs as its count followed by the values. */
+    private static void putPoints(ByteBuffer buffer, double[] points) {
+        buffer.putInt(points.length / 2);
+        buffer.asDoubleBuffer().put(points);
+        buffer.position(buffer.position() + points.length * Double.BYTES);
+    }
+
+    /** Writes one byte per flag; the count is known from the matching object list. */
+    private static void putFlags(ByteBuffer buffer, boolean[] flags) {
+        for (boolean flag : flags) {
+            buffer.put((byte) (flag ? 1 : 0));
+        }
+    }
+
+    private static boolean[] getFlags(ByteBuffer buffer, int count) {
+        boolean[] flags = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            flags[i] = buffer.get() != 0;
+        }
+        return flags;
+    }
+
+    private static double[] getPoints(ByteBuffer buffer) {
+        return getDoubles(buffer, buffer.getInt() * 2);
+    }
+
+    private static double[] getDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * Double.BYTES);
+        return values;
+    }
+}
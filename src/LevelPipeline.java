@@ -0,0 +1,134 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds gameplay screens ahead of time so that starting or switching levels
+ * does not have to parse the level and create every game object inside a frame.
+ * A level is built on a background thread once every asset has been created,
+ * and is handed over in one step when the game moves to that level.
+ */
+public class LevelPipeline {
+    private static final int UPLOADS_PER_FRAME = 1;   // Leftover assets turned into textures each frame
+
+    private final GameConfig CONFIG;
+    private final ExecutorService BUILDER;
+
+    // Levels that have been requested but not built yet (render thread only)
+    private final Set<Integer> requested = new HashSet<>();
+    // Levels that are being built, or have been built, in the background (render thread only)
+    private final Map<Integer, Future<GamePlayScreen>> prepared = new HashMap<>();
+
+    /**
+     * Constructs a pipeline that builds levels from the given settings.
+     *
+     * @param config Game settings containing the level definitions.
+     */
+    public LevelPipeline(GameConfig config) {
+        this.CONFIG = config;
+        this.BUILDER = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "level-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Asks for a level to be built in the background before it is needed.
+     *
+     * @param level The level to build.
+     */
+    public void prepare(int level) {
+        if (!prepared.containsKey(level)) {
+            requested.add(level);
+            update();
+        }
+    }
+
+    /**
+     * Moves requested levels forward. Called once per frame on the render thread.
+     * Building touches the shared images, so it only starts in the background once
+     * every asset exists; until then the leftover assets are created a few per frame.
+     */
+    public void update() {
+        if (requested.isEmpty()) {
+            return;
+        }
+        if (!AssetLoader.isComplete()) {
+            AssetLoader.uploadPending(UPLOADS_PER_FRAME);
+            return;
+        }
+        for (int level : requested) {
+            prepared.put(level, BUILDER.submit(() -> new GamePlayScreen(CONFIG, level, 0)));
+        }
+        requested.clear();
+    }
+
+    /**
+     * Throws away any screen built for a level and builds it again, after its definition has changed.
+     *
+     * @param level The level to rebuild.
+     */
+    public void rebuild(int level) {
+        Future<GamePlayScreen> future = prepared.remove(level);
+        if (future != null) {
+            future.cancel(false);
+        }
+        prepare(level);
+    }
+
+    /**
+     * Takes the screen for a level only if it has finished building, without waiting.
+     *
+     * @param level The level to take.
+     * @return The built {@link GamePlayScreen}, or {@code null} if it is not ready.
+     */
+    public GamePlayScreen poll(int level) {
+        Future<GamePlayScreen> future = prepared.get(level);
+        if (future == null || !future.isDone()) {
+            return null;
+        }
+        prepared.remove(level);
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Takes the screen for a level, waiting for it if it is still being built,
+     * or building it right away if it was never prepared.
+     * A prepared screen can only be taken once.
+     *
+     * @param level      The level to start.
+     * @param startScore The score carried over into the level.
+     * @return A fresh {@link GamePlayScreen} for the level.
+     */
+    public GamePlayScreen take(int level, int startScore) {
+        requested.remove(level);
+        Future<GamePlayScreen> future = prepared.remove(level);
+        if (future != null) {
+            // Waiting for a build that is already under way is never slower than starting another,
+            // and only one screen is built at a time
+            try {
+                GamePlayScreen screen = future.get();
+                screen.setScore(startScore);
+                return screen;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while waiting for level " + level + " to be built");
+            } catch (ExecutionException ex) {
+                // Fall back to building the level here
+                ex.printStackTrace();
+            }
+        }
+        return new GamePlayScreen(CONFIG, level, startScore);
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Watches the level files while the game is running, for editing levels without restarting.
+ * When res/app.properties or a compiled level file changes, the affected levels are read again
+ * on a background thread and replace their cached definitions. The render thread then asks
+ * which levels changed, so that it can rebuild them and swap in the one being played.
+ * Only used when "dev.hotReload=true" is set.
+ */
+public class LevelWatcher {
+    private static final Path RESOURCE_DIR = Paths.get("res");
+    private static final Path PROPERTIES_FILE = RESOURCE_DIR.resolve("app.properties");
+    private static final Path LEVEL_DIR = Paths.get(LevelFile.pathFor(1)).getParent();
+    private static final long SETTLE_MILLIS = 50;   // Editors often write a file in several steps
+
+    private final Set<Integer> LEVELS;
+    private Properties previous;   // The properties file as last read, to tell which levels an edit touched
+    // Levels whose definition changed, waiting for the render thread
+    private final ConcurrentLinkedQueue<Integer> CHANGED = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Starts watching the level files on a background thread.
+     *
+     * @param levels The numbers of the levels to keep up to date.
+     */
+    public LevelWatcher(Set<Integer> levels) {
+        this.LEVELS = levels;
+        Thread thread = new Thread(this::watch, "level-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Takes the next level whose definition has changed. Called on the render thread.
+     *
+     * @return The level number, or {@code null} if nothing has changed.
+     */
+    public Integer pollChanged() {
+        return CHANGED.poll();
+    }
+
+    /** Waits for file changes until the game closes. */
+    private void watch() {
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            Files.createDirectories(LEVEL_DIR);
+            RESOURCE_DIR.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            LEVEL_DIR.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            System.out.println("Watching " + PROPERTIES_FILE + " and " + LEVEL_DIR + " for level changes");
+            previous = readProperties();
+
+            while (true) {
+                WatchKey key = watcher.take();
+                Thread.sleep(SETTLE_MILLIS);
+                boolean propertiesChanged = false;
+                Set<Integer> compiledChanged = new TreeSet<>();
+                do {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            propertiesChanged = true;
+                            continue;
+                        }
+                        Path file = dir.resolve((Path) event.context());
+                        if (file.equals(PROPERTIES_FILE)) {
+                            propertiesChanged = true;
+                        } else {
+                            for (int level : LEVELS) {
+                                if (file.equals(Paths.get(LevelFile.pathFor(level)))) {
+                                    compiledChanged.add(level);
+                                }
+                            }
+                        }
+                    }
+                    key.reset();
+                    key = watcher.poll();
+                } while (key != null);
+
+                if (propertiesChanged) {
+                    reloadProperties();
+                }
+                for (int level : compiledChanged) {
+                    reloadCompiled(level);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // The game is closing
+        } catch (IOException ex) {
+            System.err.println("Level hot reload disabled: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Parses and bakes again only the levels whose entries in the edited properties file changed,
+     * and reports the ones whose definition differs.
+     */
+    private void reloadProperties() {
+        Properties props = readProperties();
+        if (props == null) {
+            return;
+        }
+        Properties old = previous;
+        previous = props;
+        for (int level : LEVELS) {
+            if (old != null && levelEntries(old, level).equals(levelEntries(props, level))) {
+                continue;
+            }
+            try {
+                List<String> problems = new ArrayList<>();
+                replace(LevelBaker.bake(LevelData.parse(props, level), problems));
+                for (String problem : problems) {
+                    System.err.println("Level " + level + ": " + problem);
+                }
+            } catch (IllegalArgumentException ex) {
+                // Keep playing the old version until the mistake is fixed
+                System.err.println("Level " + level + ": " + ex.getMessage());
+            }
+        }
+    }
+
+    /** Reads the properties file, or returns {@code null} if it cannot be read. */
+    private Properties readProperties() {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(PROPERTIES_FILE)) {
+            props.load(in);
+            return props;
+        } catch (IOException ex) {
+            System.err.println("Could not reload " + PROPERTIES_FILE + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /** Collects the entries of one level, such as "mario.level1" and "barrel.level1.2", but not "mario.level10". */
+    private static Map<String, String> levelEntries(Properties props, int level) {
+        String suffix = ".level" + level;
+        Map<String, String> entries = new TreeMap<>();
+        for (String key : props.stringPropertyNames()) {
+            int at = key.indexOf(suffix);
+            int end = at + suffix.length();
+            if (at > 0 && key.indexOf('.') == at && (end == key.length() || key.charAt(end) == '.')) {
+                entries.put(key, props.getProperty(key));
+            }
+        }
+        return entries;
+    }
+
+    /** Reads a recompiled level file and reports the level if it differs. */
+    private void reloadCompiled(int level) {
+        try {
+            replace(LevelFile.read(Paths.get(LevelFile.pathFor(level))));
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Level " + level + ": " + ex.getMessage());
+        }
+    }
+
+    private void replace(LevelData data) {
+        if (DataLevelStrategy.replaceLevelData(data)) {
+            System.out.println("Reloaded level " + data.getLevel());
+            CHANGED.add(data.getLevel());
+        }
+    }
+}
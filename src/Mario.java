@@ -1,6 +1,9 @@
 import bagel.*;
 import bagel.util.Rectangle;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,8 +11,9 @@ import java.util.List;
  * Represents the player-controlled character, Mario.
  * Mario can move, jump, climb ladders, pick up a hammer, and interact with platforms.
  */
-public class Mario implements Shootable{
+public class Mario implements Shootable, Collider {
     private double x, y; // Mario's position
+    private double previousX, previousY; // Mario's position at the start of the frame, for swept collisions
     private double velocityY = 0; // Vertical velocity
     private boolean isJumping = false; // Whether Mario is currently jumping
     private boolean hasHammer = false; // Whether Mario has collected a hammer
@@ -28,8 +32,8 @@ public class Mario implements Shootable{
     private static final double MOVE_SPEED = 3.5;
     private static final double CLIMB_SPEED = 2;
 
-    private static double height;
-    private static double width;
+    private double height; // Size of the current sprite
+    private double width;
     private boolean isFacingRight = true; // Mario's facing direction
     private boolean blasterJustCollected = false; // Whether Mario has just picked up the blaster
 
@@ -48,20 +52,22 @@ public class Mario implements Shootable{
     public Mario(double startX, double startY) {
         this.x = startX;
         this.y = startY;
+        this.previousX = startX;
+        this.previousY = startY;
 
         // Load images for left and right-facing Mario
-        this.MARIO_RIGHT_IMAGE = new Image("res/mario_right.png");
-        this.MARIO_LEFT_IMAGE = new Image("res/mario_left.png");
-        this.MARIO_HAMMER_RIGHT_IMAGE = new Image("res/mario_hammer_right.png");
-        this.MARIO_HAMMER_LEFT_IMAGE = new Image("res/mario_hammer_left.png");
-        this.MARIO_BLASTER_RIGHT_IMAGE = new Image("res/mario_blaster_right.png");
-        this.MARIO_BLASTER_LEFT_IMAGE = new Image("res/mario_blaster_left.png");
+        this.MARIO_RIGHT_IMAGE = AssetLoader.getImage("res/mario_right.png");
+        this.MARIO_LEFT_IMAGE = AssetLoader.getImage("res/mario_left.png");
+        this.MARIO_HAMMER_RIGHT_IMAGE = AssetLoader.getImage("res/mario_hammer_right.png");
+        this.MARIO_HAMMER_LEFT_IMAGE = AssetLoader.getImage("res/mario_hammer_left.png");
+        this.MARIO_BLASTER_RIGHT_IMAGE = AssetLoader.getImage("res/mario_blaster_right.png");
+        this.MARIO_BLASTER_LEFT_IMAGE = AssetLoader.getImage("res/mario_blaster_left.png");
 
         // Default Mario starts facing right
         this.marioImage = MARIO_RIGHT_IMAGE;
 
-        width = marioImage.getWidth();
-        height = marioImage.getHeight();
+        this.width = marioImage.getWidth();
+        this.height = marioImage.getHeight();
     }
 
     /**
@@ -96,6 +102,18 @@ public class Mario implements Shootable{
      */
     public boolean holdBlaster() { return this.hasBlaster; }
 
+    /**
+     * Retrieves Mario's vertical velocity.
+     * @return Mario's vertical velocity, positive when falling.
+     */
+    public double getVelocityY() { return this.velocityY; }
+
+    /**
+     * Checks if Mario is in the middle of a jump.
+     * @return {@code true} if Mario is jumping, {@code false} otherwise.
+     */
+    public boolean isJumping() { return this.isJumping; }
+
     /**
      * Gets Mario's bounding box for collision detection.
      *
@@ -110,18 +128,59 @@ public class Mario implements Shootable{
         );
     }
 
+    /**
+     * Retrieves the bounding box at the start of the frame, for swept collisions.
+     * @return The bounding box in world coordinates at the start of the frame.
+     */
+    @Override
+    public Rectangle getPreviousBoundingBox() {
+        return Sweep.shift(getBoundingBox(), previousX - x, previousY - y);
+    }
+
+    /**
+     * Retrieves the opaque pixels of Mario's current sprite.
+     * @return The collision mask of the sprite.
+     */
+    @Override
+    public CollisionMask getCollisionMask() {
+        return AssetLoader.getMask(marioImage);
+    }
+
+    /**
+     * Retrieves the layer this object collides on.
+     * @return {@link CollisionLayer#MARIO}.
+     */
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayer.MARIO;
+    }
+
+    /**
+     * Checks whether this object can collide right now. Mario can always be hit.
+     * @return {@code true} if this object can collide, {@code false} otherwise.
+     */
+    @Override
+    public boolean isCollidable() {
+        return true;
+    }
+
     /**
      * Updates Mario's movement, jumping, ladder climbing, hammer collection, and interactions.
      * This method is called every frame to process player input and update Mario's state.
      *
-     * @param input     The player's input (keyboard/mouse).
+     * @param controls  The player's controls for this frame.
      * @param ladders   The array of ladders in the game that Mario can climb.
      * @param platforms The array of platforms in the game that Mario can walk on.
      * @param hammers    The hammer object that Mario can collect and use.
      * @param blasters  The array of blasters in the game that Mario can hold.
+     * @param worldWidth  The width of the level, which Mario cannot leave.
+     * @param worldHeight The height of the level, which Mario cannot fall below.
      */
-    public void update(Input input, Ladder[] ladders, Platform[] platforms, Hammer[] hammers, Blaster[] blasters) {
-        handleHorizontalMovement(input); // 1) Horizontal movement
+    public void update(Controls controls, Ladder[] ladders, Platform[] platforms, Hammer[] hammers, Blaster[] blasters,
+                       double worldWidth, double worldHeight) {
+        previousX = x;
+        previousY = y;
+        handleHorizontalMovement(controls); // 1) Horizontal movement
         updateSprite(); // 2) Update Mario’s current sprite (hammer or not, blaster or not, facing left or right)
         handleHammerCollection(hammers); // 3.1) If you just picked up the hammer:
         // 3.2) If you just picked up the blaster, drop the hammer if necessary
@@ -142,10 +201,10 @@ public class Mario implements Shootable{
 
         // 5) Ladder logic – check if on a ladder
         boolean isOnLadder;
-        isOnLadder = handleLadders(input, ladders);
+        isOnLadder = handleLadders(controls, ladders);
 
         // 6) Jump logic: if on platform (we'll detect after we move) but let's queue jump if needed
-        boolean wantsToJump = input.wasPressed(Keys.SPACE);
+        boolean wantsToJump = controls.has(Controls.JUMP);
 
         // 7) If not on ladder, apply gravity, move Mario
         if (!isOnLadder) {
@@ -161,10 +220,10 @@ public class Mario implements Shootable{
         onPlatform = handlePlatforms(platforms, hammers);
 
         // 10) If we are on the platform, allow jumping; Prevent Mario from falling below the ground
-        handleJumping(onPlatform, wantsToJump);
+        handleJumping(onPlatform, wantsToJump, worldHeight);
 
-        // 11) Enforce horizontal screen bounds
-        enforceBoundaries();
+        // 11) Enforce horizontal level bounds
+        enforceBoundaries(worldWidth, worldHeight);
 
         // 12) Draw Mario
         draw();
@@ -185,27 +244,31 @@ public class Mario implements Shootable{
         // We'll only snap Mario to a platform if he's moving downward (velocityY >= 0)
         // so we don't kill his jump in mid-air.
         if (velocityY >= 0) {
+            // Sweep the fall of this frame, so even at terminal velocity Mario cannot drop through a platform
+            Rectangle marioBounds = getBoundingBox();
+            Rectangle fallStart = Sweep.shift(marioBounds, 0, -velocityY);
+            double landingTop = Double.NaN;
+            double landingTime = Double.POSITIVE_INFINITY;
             for (Platform platform : platforms) {
-                Rectangle marioBounds    = getBoundingBox();
                 Rectangle platformBounds = platform.getBoundingBox();
-
-                if (marioBounds.intersects(platformBounds)) {
-                    double marioBottom = marioBounds.bottom();
-                    double platformTop = platformBounds.top();
-
-                    // If Mario's bottom is at or above the platform's top
-                    // and not far below it (a small threshold based on velocity)
-                    if (marioBottom <= platformTop + velocityY) {
-                        // Snap Mario so his bottom = the platform top
-                        y = platformTop - (marioImage.getHeight() / 2);
-                        velocityY = 0;
-                        isJumping = false;
-                        onPlatform = true;
-                        barrelsScoredThisJump.clear();
-                        break; // We found a platform collision
-                    }
+                double platformTop = platformBounds.top();
+
+                // If Mario's bottom was at or above the platform's top before falling this frame,
+                // land on the first such platform he reaches
+                double time = Sweep.timeOfImpact(fallStart, marioBounds, platformBounds);
+                if (time < landingTime && marioBounds.bottom() <= platformTop + velocityY) {
+                    landingTop = platformTop;
+                    landingTime = time;
                 }
             }
+            if (!Double.isNaN(landingTop)) {
+                // Snap Mario so his bottom = the platform top
+                y = landingTop - (marioImage.getHeight() / 2);
+                velocityY = 0;
+                isJumping = false;
+                onPlatform = true;
+                barrelsScoredThisJump.clear();
+            }
         }
         return onPlatform;
     }
@@ -217,11 +280,11 @@ public class Mario implements Shootable{
      * Mario can only climb if he is within the horizontal boundaries of the ladder.
      * He stops sliding unintentionally when not pressing movement keys.
      *
-     * @param input   The {@link Input} object that checks for user key presses.
+     * @param controls The {@link Controls} of this frame.
      * @param ladders An array of {@link Ladder} objects representing ladders in the game.
      * @return {@code true} if Mario is on a ladder, {@code false} otherwise.
      */
-    private boolean handleLadders(Input input, Ladder[] ladders) {
+    private boolean handleLadders(Controls controls, Ladder[] ladders) {
         boolean isOnLadder = false;
         for (Ladder ladder : ladders) {
             double ladderLeft  = ladder.getX() - (ladder.getWidth() / 2);
@@ -237,18 +300,18 @@ public class Mario implements Shootable{
                     isOnLadder = true;
 
                     // Stop Mario from sliding up when not moving**
-                    if (!input.isDown(Keys.UP) && !input.isDown(Keys.DOWN)) {
+                    if (!controls.has(Controls.UP) && !controls.has(Controls.DOWN)) {
                         velocityY = 0;  // Prevent sliding inertia effect
                     }
 
                     // ----------- Climb UP -----------
-                    if (input.isDown(Keys.UP)) {
+                    if (controls.has(Controls.UP)) {
                         y -= CLIMB_SPEED;
                         velocityY = 0;
                     }
 
                     // ----------- Climb DOWN -----------
-                    if (input.isDown(Keys.DOWN)) {
+                    if (controls.has(Controls.DOWN)) {
                         double nextY = y + CLIMB_SPEED;
                         double nextBottom = nextY + (marioImage.getHeight() / 2);
 
@@ -263,11 +326,11 @@ public class Mario implements Shootable{
                         }
                     }
                 }
-            } else if (marioBottom == ladderTop && input.isDown(Keys.DOWN) && (marioRight - marioImage.getWidth() / 2 > ladderLeft && marioRight - marioImage.getWidth() / 2  < ladderRight)) {
+            } else if (marioBottom == ladderTop && controls.has(Controls.DOWN) && (marioRight - marioImage.getWidth() / 2 > ladderLeft && marioRight - marioImage.getWidth() / 2  < ladderRight)) {
                 double nextY = y + CLIMB_SPEED;
                 y = nextY;
                 velocityY = 0; // ignore gravity
-            } else if (marioBottom == ladderBottom && input.isDown(Keys.DOWN) && (marioRight - marioImage.getWidth() / 2 > ladderLeft && marioRight - marioImage.getWidth() / 2  < ladderRight)) {
+            } else if (marioBottom == ladderBottom && controls.has(Controls.DOWN) && (marioRight - marioImage.getWidth() / 2 > ladderLeft && marioRight - marioImage.getWidth() / 2  < ladderRight)) {
                 velocityY = 0; // ignore gravity
             }
         }
@@ -275,11 +338,11 @@ public class Mario implements Shootable{
     }
 
     /** Handles horizontal movement based on player input. */
-    private void handleHorizontalMovement(Input input) {
-        if (input.isDown(Keys.LEFT)) {
+    private void handleHorizontalMovement(Controls controls) {
+        if (controls.has(Controls.LEFT)) {
             x -= MOVE_SPEED;
             isFacingRight = false;
-        } else if (input.isDown(Keys.RIGHT)) {
+        } else if (controls.has(Controls.RIGHT)) {
             x += MOVE_SPEED;
             isFacingRight = true;
         }
@@ -315,34 +378,37 @@ public class Mario implements Shootable{
     }
 
     /** Handles jumping if Mario is on a platform and jump is requested. */
-    private void handleJumping(boolean onPlatform, boolean wantsToJump) {
+    private void handleJumping(boolean onPlatform, boolean wantsToJump, double worldHeight) {
         if (onPlatform && wantsToJump) {
             velocityY = JUMP_STRENGTH;
             isJumping = true;
         }
         double bottomOfMario = y + (marioImage.getHeight() / 2);
-        if (bottomOfMario > ShadowDonkeyKong.getScreenHeight()) {
-            y = ShadowDonkeyKong.getScreenHeight() - (marioImage.getHeight() / 2);
+        if (bottomOfMario > worldHeight) {
+            y = worldHeight - (marioImage.getHeight() / 2);
             velocityY = 0;
             isJumping = false;
         }
     }
 
     /**
-     * Enforces screen boundaries to prevent Mario from moving out of bounds.
-     * Ensures Mario stays within the left, right, and bottom limits of the game window.
+     * Enforces level boundaries to prevent Mario from moving out of bounds.
+     * Ensures Mario stays within the left, right, and bottom limits of the level.
+     *
+     * @param worldWidth  The width of the level.
+     * @param worldHeight The height of the level.
      */
-    private void enforceBoundaries() {
+    private void enforceBoundaries(double worldWidth, double worldHeight) {
         // Calculate half the width of the Mario image (used for centering and boundary checks)
         double halfW = marioImage.getWidth() / 2;
 
-        // Prevent Mario from moving beyond the left edge of the screen
+        // Prevent Mario from moving beyond the left edge of the level
         if (x < halfW) {
             x = halfW;
         }
 
-        // Prevent Mario from moving beyond the right edge of the screen
-        double maxX = ShadowDonkeyKong.getScreenWidth() - halfW;
+        // Prevent Mario from moving beyond the right edge of the level
+        double maxX = worldWidth - halfW;
         if (x > maxX) {
             x = maxX;
         }
@@ -350,10 +416,10 @@ public class Mario implements Shootable{
         // Calculate Mario's bottom edge position
         double bottomOfMario = y + (marioImage.getHeight() / 2);
 
-        // Prevent Mario from falling below the bottom of the screen
-        if (bottomOfMario > ShadowDonkeyKong.getScreenHeight()) {
+        // Prevent Mario from falling below the bottom of the level
+        if (bottomOfMario > worldHeight) {
             // Reposition Mario to stand on the bottom edge
-            y = ShadowDonkeyKong.getScreenHeight() - (marioImage.getHeight() / 2);
+            y = worldHeight - (marioImage.getHeight() / 2);
 
             // Stop vertical movement and reset jumping state
             velocityY = 0;
@@ -400,7 +466,9 @@ public class Mario implements Shootable{
      * Draws Mario on the screen.
      */
     public void draw() {
-        marioImage.draw(x, y);
+        if (Camera.isVisible(x, y, width, height)) {
+            marioImage.draw(Camera.toScreenX(x), Camera.toScreenY(y));
+        }
 //    drawBoundingBox(); // Uncomment for debugging
     }
 
@@ -428,45 +496,28 @@ public class Mario implements Shootable{
     }
 
     /**
-     * Checks if Mario is touching the hammer.
-     *
-     * @param monkey The monkey object to check collision with.
-     * @return {@code true} if Mario is touching the monkey, {@code false} otherwise.
-     */
-    public boolean isTouchingMonkey(Monkey monkey) {
-        Rectangle marioBounds = getBoundingBox();
-        return marioBounds.intersects(monkey.getBoundingBox());
-    }
-
-    /**
-     * Checks if Mario is touching a barrel.
+     * Determines if Mario successfully jumps over a barrel, scoring it for this jump.
      *
-     * @param barrel The barrel object to check collision with.
-     * @return {@code true} if Mario is touching the barrel, {@code false} otherwise.
-     */
-    public boolean isTouchingBarrel(Barrel barrel) {
-        Rectangle marioBounds = getBoundingBox();
-        return marioBounds.intersects(barrel.getBoundingBox());
-    }
-
-    /**
-     * Checks if Mario has reached Donkey Kong.
-     *
-     * @param donkey The Donkey object to check collision with.
-     * @return {@code true} if Mario has reached Donkey Kong, {@code false} otherwise.
+     * @param barrel The barrel object to check.
+     * @return {@code true} if Mario successfully jumps over the barrel, {@code false} otherwise.
      */
-    public boolean hasReached(Donkey donkey) {
-        Rectangle marioBounds = getBoundingBox();
-        return marioBounds.intersects(donkey.getBoundingBox());
+    public boolean jumpOver(Barrel barrel) {
+        if (!canJumpOver(barrel)) {
+            return false;
+        }
+        barrelsScoredThisJump.add(barrel); // mark this barrel as scored
+        isJumping = false;
+        return true;
     }
 
     /**
-     * Determines if Mario successfully jumps over a barrel.
+     * Checks whether Mario is jumping over a barrel he has not scored yet, without scoring it,
+     * so many barrels can be checked at the same time.
      *
      * @param barrel The barrel object to check.
-     * @return {@code true} if Mario successfully jumps over the barrel, {@code false} otherwise.
+     * @return {@code true} if {@link #jumpOver} would score the barrel, {@code false} otherwise.
      */
-    public boolean jumpOver(Barrel barrel) {
+    public boolean canJumpOver(Barrel barrel) {
         if (barrelsScoredThisJump.contains(barrel)) {
             return false;
         }
@@ -483,12 +534,20 @@ public class Mario implements Shootable{
         boolean isCloseToBarrel = (barrelTop - marioBottom) <= Physics.MARIO_JUMP_HEIGHT;
         boolean jumpedOverX = marioCenterX > barrelLeft && marioCenterX < barrelRight;
 
-        if (!barrel.isDestroyed() && isJumping && wasAboveBarrel && isCloseToBarrel && jumpedOverX) {
-            barrelsScoredThisJump.add(barrel); // mark this barrel as scored
-            isJumping = false;
-            return true;
-        }
-        return false;
+        return !barrel.isDestroyed() && isJumping && wasAboveBarrel && isCloseToBarrel && jumpedOverX;
+    }
+
+    /**
+     * Moves Mario to a new position, for example when the level is reloaded around him.
+     *
+     * @param x The new x-coordinate.
+     * @param y The new y-coordinate.
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+        this.previousX = x;
+        this.previousY = y;
     }
 
     /**
@@ -508,6 +567,75 @@ public class Mario implements Shootable{
     }
 
 
+    /**
+     * Writes everything about Mario that changes during a level, for saving the game.
+     *
+     * @param out     The stream to write to.
+     * @param barrels The barrels of the level, so barrels scored in the current jump can be written by index.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out, Barrel[] barrels) throws IOException {
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeDouble(velocityY);
+        out.writeBoolean(isJumping);
+        out.writeBoolean(hasHammer);
+        out.writeBoolean(hasBlaster);
+        out.writeBoolean(isFacingRight);
+        out.writeBoolean(blasterJustCollected);
+        out.writeInt(bullets.size());
+        for (Bullet bullet : bullets) {
+            bullet.writeState(out);
+        }
+        List<Integer> scored = new ArrayList<>();
+        for (int i = 0; i < barrels.length; i++) {
+            if (barrelsScoredThisJump.contains(barrels[i])) {
+                scored.add(i);
+            }
+        }
+        out.writeInt(scored.size());
+        for (int index : scored) {
+            out.writeInt(index);
+        }
+    }
+
+    /**
+     * Restores Mario from the state written by {@link #writeState}.
+     *
+     * @param in      The stream to read from.
+     * @param barrels The barrels of the level, in the same order as when the state was written.
+     * @throws IOException if the stream cannot be read or does not match the level.
+     */
+    public void readState(DataInputStream in, Barrel[] barrels) throws IOException {
+        x = in.readDouble();
+        double savedY = in.readDouble();
+        velocityY = in.readDouble();
+        isJumping = in.readBoolean();
+        hasHammer = in.readBoolean();
+        hasBlaster = in.readBoolean();
+        isFacingRight = in.readBoolean();
+        blasterJustCollected = in.readBoolean();
+        updateSprite();
+        y = savedY;   // Choosing the sprite moves Mario to keep his feet in place; the saved y is already right
+        previousX = x;
+        previousY = y;
+
+        bullets.clear();
+        int bulletCount = in.readInt();
+        for (int i = 0; i < bulletCount; i++) {
+            bullets.add(Bullet.readState(in));
+        }
+        barrelsScoredThisJump.clear();
+        int scoredCount = in.readInt();
+        for (int i = 0; i < scoredCount; i++) {
+            int index = in.readInt();
+            if (index < 0 || index >= barrels.length) {
+                throw new IOException("Saved state refers to barrel " + index + " of " + barrels.length);
+            }
+            barrelsScoredThisJump.add(barrels[index]);
+        }
+    }
+
     @Override
     public void shoot() {
         if (hasBlaster) {
@@ -1,12 +1,19 @@
 import bagel.*;
 import bagel.util.*;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Abstract Monkey class that can be extended to normal or intelligent monkeys, with their
  * own characteristics and actions as specified.
  */
-public abstract class Monkey {
+public abstract class Monkey implements Collider {
     protected double x, y;
+    protected double previousX, previousY;   // Position at the start of the frame, for swept collisions
     protected Image sprite;         // Image that represents the types of monkeys
     protected boolean destroyed = false;  // Track whether monkey is destroyed
 
@@ -19,6 +26,14 @@ public abstract class Monkey {
 
     protected static final double HEIGHT_TOLERANCE = 1.0;   // Tolerance value when checking platform interaction
 
+    // Monkeys far from Mario are only updated every few ticks, catching up on the ticks they missed.
+    // Far is a distance in the world, so replays and saved games play the same at any window size;
+    // it is the diagonal of the default 1024x768 window, so a far monkey is never on screen there
+    private static final int FAR_INTERVAL = 4;          // Ticks between updates of a far monkey
+    private static final double FAR_DISTANCE = 1280;    // Distance from Mario beyond which a monkey is far
+    private boolean onPlatform = false;                 // Whether the monkey landed on a platform last tick
+    private int ticksBehind = 0;                        // Ticks a far monkey has not been updated for
+
     protected Image leftSprite;
     protected Image rightSprite;
 
@@ -31,15 +46,17 @@ public abstract class Monkey {
     public Monkey(double x, double y, String image) {
         this.x = x;
         this.y = y;
-        this.sprite = new Image(image);
+        this.previousX = x;
+        this.previousY = y;
+        this.sprite = AssetLoader.getImage(image);
     }
 
     /**
      * Draw the Monkeys when they are alive
      */
     public void draw() {
-        if (!destroyed) {
-            sprite.draw(x, y);
+        if (!destroyed && Camera.isVisible(x, y, sprite.getWidth(), sprite.getHeight())) {
+            sprite.draw(Camera.toScreenX(x), Camera.toScreenY(y));
         }
     }
 
@@ -51,6 +68,42 @@ public abstract class Monkey {
         return new Rectangle(x - sprite.getWidth()/2, y - sprite.getHeight()/2, sprite.getWidth(), sprite.getHeight());
     }
 
+    /**
+     * Retrieves the bounding box at the start of the frame, for swept collisions.
+     * @return The bounding box in world coordinates at the start of the frame.
+     */
+    @Override
+    public Rectangle getPreviousBoundingBox() {
+        return Sweep.shift(getBoundingBox(), previousX - x, previousY - y);
+    }
+
+    /**
+     * Retrieves the opaque pixels of the monkey's current sprite.
+     * @return The collision mask of the sprite.
+     */
+    @Override
+    public CollisionMask getCollisionMask() {
+        return AssetLoader.getMask(sprite);
+    }
+
+    /**
+     * Retrieves the layer this object collides on.
+     * @return {@link CollisionLayer#MONKEY}.
+     */
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayer.MONKEY;
+    }
+
+    /**
+     * Checks whether this object can collide right now. Destroyed monkeys no longer collide.
+     * @return {@code true} if this object can collide, {@code false} otherwise.
+     */
+    @Override
+    public boolean isCollidable() {
+        return !isDestroyed();
+    }
+
     /**
      * Track if the Monkeys are destroyed.
      * @return {@code true} if is destroyed, {@code false} otherwise.
@@ -66,6 +119,54 @@ public abstract class Monkey {
         destroyed = true;
     }
 
+    /**
+     * Retrieves the x-coordinate of the Monkey.
+     * @return The x-coordinate of the Monkey.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Retrieves the y-coordinate of the Monkey.
+     * @return The y-coordinate of the Monkey.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Check the direction the Monkey is walking.
+     * @return {@code true} if walking right, {@code false} otherwise.
+     */
+    public boolean isMovingRight() {
+        return movingRight;
+    }
+
+    /**
+     * Retrieves the route distances of the Monkey.
+     * @return The route of the Monkey.
+     */
+    public int[] getRoute() {
+        return route;
+    }
+
+    /**
+     * Retrieves which route distance the Monkey is walking.
+     * @return The index into the route.
+     */
+    public int getRouteIndex() {
+        return routeIndex;
+    }
+
+    /**
+     * Retrieves the distance walked for the current route.
+     * @return The distance walked so far.
+     */
+    public double getDistanceWalked() {
+        return distanceWalked;
+    }
+
     /**
      * Update the Monkey's position by applying gravity and checking for platform collisions.
      * Monkeys should turn back when they reach the edge of screen or platforms.
@@ -77,28 +178,108 @@ public abstract class Monkey {
      *
      * @param mario Mario object in the game.
      * @param platforms A list of platforms in the game.
+     * @param worldWidth The width of the level, at whose edges monkeys turn back.
      */
-    public void update(Mario mario, Platform[] platforms) {
+    public void update(Mario mario, Platform[] platforms, double worldWidth) {
+        previousX = x;
+        previousY = y;
+
         // 1) Check if monkey has been destroyed
         if (destroyed) return;
 
-        // 2) Apply gravity and snap monkeys onto platforms when landing
+        // 2) Far from Mario and walking on a platform: only move every few ticks,
+        //    then play the missed ticks in one go so the route is the same as moving every tick.
+        //    A monkey about to act on where it is, such as shooting, catches up first and moves every tick
+        if (onPlatform && isFar(mario) && !hasActionDue(FAR_INTERVAL)) {
+            if (++ticksBehind >= FAR_INTERVAL) {
+                catchUp(platforms, worldWidth);
+            }
+            draw();
+            return;
+        }
+        catchUp(platforms, worldWidth);
+
+        // 3) Move for this tick
+        step(platforms, worldWidth);
+
+        // 4) Draw monkeys
+        draw();
+    }
+
+    /**
+     * Checks whether the monkey is far enough from Mario to be updated less often.
+     * @param mario Mario object in the game.
+     * @return {@code true} if the monkey is farther than {@link #FAR_DISTANCE} from Mario, {@code false} otherwise.
+     */
+    private boolean isFar(Mario mario) {
+        double dx = mario.getX() - x;
+        double dy = mario.getY() - y;
+        return dx * dx + dy * dy > FAR_DISTANCE * FAR_DISTANCE;
+    }
+
+    /**
+     * Checks whether one of the monkey's periodic actions, which act on where the monkey is, runs soon.
+     * Monkeys without any have nothing due.
+     *
+     * @param ticks The number of ticks to look ahead.
+     * @return {@code true} if an action runs within that many ticks, {@code false} otherwise.
+     */
+    protected boolean hasActionDue(int ticks) {
+        return false;
+    }
+
+    /**
+     * Plays the ticks a far monkey has missed. Only the platforms it can reach in those ticks are
+     * tested, in their usual order, so the result is the same as testing every platform each tick.
+     * @param platforms A list of platforms in the game.
+     * @param worldWidth The width of the level.
+     */
+    private void catchUp(Platform[] platforms, double worldWidth) {
+        if (ticksBehind == 0) {
+            return;
+        }
+
+        // A walking monkey moves at most SPEED a tick sideways and only drops onto the platform under it
+        double reach = ticksBehind * SPEED + HEIGHT_TOLERANCE;
+        Rectangle box = getBoundingBox();
+        Rectangle reachable = new Rectangle(box.left() - reach, box.top(), box.right() - box.left() + 2 * reach,
+                box.bottom() - box.top() + Physics.MONKEY_GRAVITY + HEIGHT_TOLERANCE);
+        List<Platform> nearby = new ArrayList<>();
+        for (Platform p : platforms) {
+            if (reachable.intersects(p.getBoundingBox())) {
+                nearby.add(p);
+            }
+        }
+        Platform[] reachablePlatforms = nearby.toArray(new Platform[0]);
+
+        for (; ticksBehind > 0; ticksBehind--) {
+            step(reachablePlatforms, worldWidth);
+        }
+    }
+
+    /**
+     * Moves the monkey for one tick: falls onto a platform, then walks along its route.
+     * @param platforms The platforms the monkey can land on and walk along.
+     * @param worldWidth The width of the level.
+     */
+    private void step(Platform[] platforms, double worldWidth) {
+        // 1) Apply gravity and snap monkeys onto platforms when landing
         velocityY += Physics.MONKEY_GRAVITY;
         y += velocityY;
 
-        if (handlePlatforms(platforms)) {
+        onPlatform = handlePlatforms(platforms);
+        if (onPlatform) {
             velocityY = 0;
         } else {
-            draw();
             return;
         }
 
-        // 3) Turn around if next step leads off the platform
+        // 2) Turn around if next step leads off the platform
         if (isAtPlatformEdge(platforms)) {
             flipDirection();
         }
 
-        // 4) Make sure that monkeys stop exactly at the
+        // 3) Make sure that monkeys stop exactly at the
         //    route boundary when it is about to overshoot the distance
         //    Also, monkeys should turn back and walk for the next route
         //    when they walked over the current route
@@ -108,21 +289,18 @@ public abstract class Monkey {
             flipDirection();
         }
 
-        // 5) Control movement
+        // 4) Control movement
         x += movingRight ? move : -move;
         distanceWalked += move;
 
 
-        // 5) Monitor the screen boundary and turn back if necessary
-        if ((x-sprite.getWidth()/2) <= 0 || (x+sprite.getWidth()/2) >= ShadowDonkeyKong.getScreenWidth()) {
+        // 5) Monitor the level boundary and turn back if necessary
+        if ((x-sprite.getWidth()/2) <= 0 || (x+sprite.getWidth()/2) >= worldWidth) {
             flipDirection();
         }
 
         // 6) Update sprite again since there might be any change of image
         updateSprite();
-
-        // 7) Draw monkeys
-        draw();
     }
 
 
@@ -191,4 +369,64 @@ public abstract class Monkey {
     protected void updateSprite() {
         sprite = movingRight ? rightSprite : leftSprite;
     }
-}
\ No newline at end of file
+
+    /**
+     * Registers the monkey's periodic actions on the game's timing wheel. Monkeys without any do nothing.
+     *
+     * @param timers The timing wheel advanced once per frame.
+     */
+    public void startTimers(TimingWheel timers) {
+    }
+
+    /**
+     * Takes the monkey's periodic actions off the timing wheel, keeping how far along they are,
+     * for when the monkey leaves play.
+     */
+    public void stopTimers() {
+    }
+
+    /**
+     * Writes the monkey's position, fall, direction and progress along its route, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeDouble(x);
+        out.writeDouble(y);
+        out.writeDouble(velocityY);
+        out.writeBoolean(movingRight);
+        out.writeInt(routeIndex);
+        out.writeDouble(distanceWalked);
+        out.writeBoolean(destroyed);
+        out.writeBoolean(onPlatform);
+        out.writeInt(ticksBehind);
+    }
+
+    /**
+     * Restores the monkey from the state written by {@link #writeState}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        x = in.readDouble();
+        y = in.readDouble();
+        velocityY = in.readDouble();
+        movingRight = in.readBoolean();
+        routeIndex = in.readInt();
+        distanceWalked = in.readDouble();
+        destroyed = in.readBoolean();
+        onPlatform = in.readBoolean();
+        ticksBehind = in.readInt();
+        previousX = x;
+        previousY = y;
+        if (routeIndex < 0 || routeIndex >= Math.max(route.length, 1)) {
+            throw new IOException("Saved route index " + routeIndex + " is outside a route of " + route.length);
+        }
+        if (ticksBehind < 0 || ticksBehind >= FAR_INTERVAL) {
+            throw new IOException("Saved monkey is " + ticksBehind + " ticks behind, at most " + (FAR_INTERVAL - 1) + " expected");
+        }
+        updateSprite();
+    }
+}
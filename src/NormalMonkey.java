@@ -13,8 +13,8 @@ public class NormalMonkey extends Monkey {
      */
     public NormalMonkey(double x, double y, String direction, int[] route) {
         super(x, y, direction.equals("right") ? "res/normal_monkey_right.png" : "res/normal_monkey_left.png");
-        this.leftSprite = new Image("res/normal_monkey_left.png");
-        this.rightSprite = new Image("res/normal_monkey_right.png");
+        this.leftSprite = AssetLoader.getImage("res/normal_monkey_left.png");
+        this.rightSprite = AssetLoader.getImage("res/normal_monkey_right.png");
         this.movingRight = direction.equals("right");
         this.route = route;
     }
@@ -24,9 +24,10 @@ public class NormalMonkey extends Monkey {
      *
      * @param mario Mario object in the game.
      * @param platforms A list of platforms in the game.
+     * @param worldWidth The width of the level.
      */
     @Override
-    public void update(Mario mario, Platform[] platforms) {
-        super.update(mario, platforms);
+    public void update(Mario mario, Platform[] platforms, double worldWidth) {
+        super.update(mario, platforms, worldWidth);
     }
 }
\ No newline at end of file
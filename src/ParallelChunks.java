@@ -0,0 +1,103 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Updates large arrays of game objects, such as the barrels of a stress level, in chunks spread over
+ * the {@link WorkerPool}. Arrays shorter than {@link #THRESHOLD} are updated on the calling thread,
+ * so normal levels pay nothing for it.
+ * Chunks are always {@link #CHUNK_SIZE} objects long, whatever the number of threads, so a chunk
+ * that records its results in its own slot can have them combined in chunk order afterwards and
+ * give the same total every time.
+ */
+public final class ParallelChunks {
+    /** The number of objects in a chunk. */
+    public static final int CHUNK_SIZE = 128;
+    /** The number of objects from which chunks are handed to the workers. */
+    public static final int THRESHOLD = 512;
+
+    /**
+     * The work on one chunk, which may only change the objects in its range and its own results.
+     */
+    public interface Body {
+        /**
+         * Updates the objects of one chunk.
+         *
+         * @param chunk The chunk's number, counting from 0.
+         * @param from  The first index of the chunk.
+         * @param to    The index after the last of the chunk.
+         */
+        void run(int chunk, int from, int to);
+    }
+
+    private ParallelChunks() {
+    }
+
+    /**
+     * Retrieves how many chunks an array is split into, for sizing the array of their results.
+     *
+     * @param count The number of objects.
+     * @return The number of chunks.
+     */
+    public static int chunkCount(int count) {
+        return (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Runs the work on every chunk, returning once all of them are done.
+     * The calling thread works on chunks too, so this also finishes when every worker is busy.
+     *
+     * @param count The number of objects.
+     * @param body  The work on one chunk.
+     */
+    public static void run(int count, Body body) {
+        int chunks = chunkCount(count);
+        ExecutorService workers = count >= THRESHOLD ? WorkerPool.get() : null;
+        if (workers == null) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                body.run(chunk, chunk * CHUNK_SIZE, Math.min(count, (chunk + 1) * CHUNK_SIZE));
+            }
+            return;
+        }
+
+        // 1) Every thread takes the next chunk nobody has taken until none are left
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(chunks);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            int chunk;
+            while ((chunk = next.getAndIncrement()) < chunks) {
+                try {
+                    body.run(chunk, chunk * CHUNK_SIZE, Math.min(count, (chunk + 1) * CHUNK_SIZE));
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+
+        // 2) Call in as many workers as there are chunks for, and work alongside them
+        int helpers = Math.min(chunks - 1, WorkerPool.size());
+        for (int i = 0; i < helpers; i++) {
+            workers.execute(worker);
+        }
+        worker.run();
+
+        // 3) Wait for the chunks the workers are still on
+        try {
+            done.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the chunks", ex);
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+    }
+}
@@ -6,7 +6,7 @@ import bagel.util.Colour;
  * Represents a stationary platform in the game.
  * Platforms provide surfaces for Mario to walk on and interact with.
  */
-public class Platform {
+public class Platform implements Collider {
     private final Image PLATFORM_IMAGE; // Image representing the platform
     private final double X, Y;               // Position of the platform
     private final double WIDTH, HEIGHT; // Dimensions of the platform
@@ -19,7 +19,7 @@ public class Platform {
      */
     public Platform(double startX, double startY) {
         // Load platform sprite
-        this.PLATFORM_IMAGE = new Image("res/platform.png");
+        this.PLATFORM_IMAGE = AssetLoader.getImage("res/platform.png");
         this.X = startX;
         this.Y = startY;
 
@@ -32,7 +32,9 @@ public class Platform {
      * Draws the platform on the screen.
      */
     public void draw() {
-        PLATFORM_IMAGE.draw(X, Y);
+        if (Camera.isVisible(X, Y, WIDTH, HEIGHT)) {
+            PLATFORM_IMAGE.draw(Camera.toScreenX(X), Camera.toScreenY(Y));
+        }
 //        drawBoundingBox(); // Uncomment for debugging
     }
 
@@ -86,4 +88,22 @@ public class Platform {
                 HEIGHT
         );
     }
+
+    /**
+     * Retrieves the layer this object collides on.
+     * @return {@link CollisionLayer#PLATFORM}.
+     */
+    @Override
+    public int getCollisionLayer() {
+        return CollisionLayer.PLATFORM;
+    }
+
+    /**
+     * Checks whether this object can collide right now. Platforms always collide.
+     * @return {@code true} if this object can collide, {@code false} otherwise.
+     */
+    @Override
+    public boolean isCollidable() {
+        return true;
+    }
 }
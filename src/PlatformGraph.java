@@ -0,0 +1,397 @@
+import bagel.Image;
+import bagel.util.Rectangle;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The floors of a level and the ladders between them, for monkeys that chase Mario.
+ * Platforms at the same height that overlap or touch form one floor, and a ladder links the floor
+ * it stands on to the nearest floor above that its top reaches.
+ * The way to Mario is found with one breadth-first search from Mario's floor whenever he reaches
+ * a different floor, giving every floor the ladder to take next; chasers only look it up,
+ * so any number of them cost the same as one. The search runs on a {@link JobQueue}, one floor
+ * per step, and chasers keep using the previous result until it finishes.
+ */
+public class PlatformGraph implements JobQueue.Job {
+    private static final double TOLERANCE = 1.0;   // Heights closer than this are the same
+    private static final String PLATFORM_IMAGE = "res/platform.png";
+    private static final String LADDER_IMAGE = "res/ladder.png";
+
+    // Floors, sorted from the top of the level down
+    private final double[] FLOOR_LEFT;
+    private final double[] FLOOR_RIGHT;
+    private final double[] FLOOR_TOP;
+
+    // Ladders that link two floors
+    private final double[] LINK_X;
+    private final int[] LINK_LOWER;   // The floor the ladder stands on
+    private final int[] LINK_UPPER;   // The floor its top reaches
+    private final int[][] FLOOR_LINKS;   // For each floor, the ladders leading off it
+
+    // The way to the target floor, refreshed when the target changes
+    private final int[] NEXT_LINK;   // For each floor, the ladder to take next, or -1
+    private int targetFloor = -1;
+
+    // The search under way for a new target
+    private final JobQueue JOBS;
+    private final int[] SEARCH_NEXT;
+    private final int[] SEARCH_QUEUE;
+    private final boolean[] SEARCH_REACHED;
+    private int searchFloor = -1;
+    private int searchHead = 0;
+    private int searchTail = 0;
+    private boolean searching = false;
+
+    /**
+     * Builds the graph of a level from its platforms and its settled ladders.
+     *
+     * @param platforms Every platform of the level.
+     * @param ladders   Every ladder of the level.
+     * @param jobs      The queue searches run on.
+     */
+    public PlatformGraph(Platform[] platforms, Ladder[] ladders, JobQueue jobs) {
+        this(boxesOf(platforms), laddersX(ladders), boxesOf(ladders), jobs);
+    }
+
+    /**
+     * Builds the graph of a level straight from its definition, for tall levels whose
+     * platforms and ladders are only created near Mario.
+     *
+     * @param data The level definition.
+     * @param jobs The queue searches run on.
+     */
+    public PlatformGraph(LevelData data, JobQueue jobs) {
+        this(boxesAt(data.platforms, AssetLoader.getImage(PLATFORM_IMAGE)), laddersX(data.ladders),
+                boxesAt(data.ladders, AssetLoader.getImage(LADDER_IMAGE)), jobs);
+    }
+
+    private PlatformGraph(Rectangle[] platformBoxes, double[] ladderX, Rectangle[] ladderBoxes, JobQueue jobs) {
+        // 1) Merge the platforms into floors, sorting by height and then from left to right
+        Rectangle[] boxes = platformBoxes.clone();
+        Arrays.sort(boxes, Comparator.comparingDouble(Rectangle::top).thenComparingDouble(Rectangle::left));
+        List<double[]> floors = new ArrayList<>();
+        for (Rectangle box : boxes) {
+            double[] last = floors.isEmpty() ? null : floors.get(floors.size() - 1);
+            if (last != null && Math.abs(last[2] - box.top()) <= TOLERANCE && box.left() <= last[1]) {
+                last[1] = Math.max(last[1], box.right());
+            } else {
+                floors.add(new double[] {box.left(), box.right(), box.top()});
+            }
+        }
+        FLOOR_LEFT = new double[floors.size()];
+        FLOOR_RIGHT = new double[floors.size()];
+        FLOOR_TOP = new double[floors.size()];
+        for (int i = 0; i < floors.size(); i++) {
+            FLOOR_LEFT[i] = floors.get(i)[0];
+            FLOOR_RIGHT[i] = floors.get(i)[1];
+            FLOOR_TOP[i] = floors.get(i)[2];
+        }
+
+        // 2) Link the floor under each ladder to the nearest floor its top reaches
+        List<int[]> links = new ArrayList<>();
+        List<Double> linkX = new ArrayList<>();
+        for (int ladder = 0; ladder < ladderBoxes.length; ladder++) {
+            Rectangle box = ladderBoxes[ladder];
+            int lower = floorAt(ladderX[ladder], box.bottom());
+            int upper = -1;
+            for (int floor = 0; lower >= 0 && floor < lower; floor++) {
+                if (box.top() <= FLOOR_TOP[floor] + TOLERANCE && isAbove(floor, ladderX[ladder])) {
+                    upper = floor;   // Floors are sorted from the top, so the last match is the nearest
+                }
+            }
+            if (upper >= 0) {
+                links.add(new int[] {lower, upper});
+                linkX.add(ladderX[ladder]);
+            }
+        }
+        LINK_X = new double[links.size()];
+        LINK_LOWER = new int[links.size()];
+        LINK_UPPER = new int[links.size()];
+        int[] linkCount = new int[FLOOR_TOP.length];
+        for (int i = 0; i < links.size(); i++) {
+            LINK_X[i] = linkX.get(i);
+            LINK_LOWER[i] = links.get(i)[0];
+            LINK_UPPER[i] = links.get(i)[1];
+            linkCount[LINK_LOWER[i]]++;
+            linkCount[LINK_UPPER[i]]++;
+        }
+        FLOOR_LINKS = new int[FLOOR_TOP.length][];
+        for (int floor = 0; floor < FLOOR_TOP.length; floor++) {
+            FLOOR_LINKS[floor] = new int[linkCount[floor]];
+            linkCount[floor] = 0;
+        }
+        for (int i = 0; i < LINK_X.length; i++) {
+            FLOOR_LINKS[LINK_LOWER[i]][linkCount[LINK_LOWER[i]]++] = i;
+            FLOOR_LINKS[LINK_UPPER[i]][linkCount[LINK_UPPER[i]]++] = i;
+        }
+        NEXT_LINK = new int[FLOOR_TOP.length];
+        Arrays.fill(NEXT_LINK, -1);
+        this.JOBS = jobs;
+        SEARCH_NEXT = new int[FLOOR_TOP.length];
+        SEARCH_QUEUE = new int[FLOOR_TOP.length];
+        SEARCH_REACHED = new boolean[FLOOR_TOP.length];
+    }
+
+    private static Rectangle[] boxesOf(Platform[] platforms) {
+        Rectangle[] boxes = new Rectangle[platforms.length];
+        for (int i = 0; i < platforms.length; i++) {
+            boxes[i] = platforms[i].getBoundingBox();
+        }
+        return boxes;
+    }
+
+    private static Rectangle[] boxesOf(Ladder[] ladders) {
+        Rectangle[] boxes = new Rectangle[ladders.length];
+        for (int i = 0; i < ladders.length; i++) {
+            boxes[i] = ladders[i].getBoundingBox();
+        }
+        return boxes;
+    }
+
+    private static double[] laddersX(Ladder[] ladders) {
+        double[] xs = new double[ladders.length];
+        for (int i = 0; i < ladders.length; i++) {
+            xs[i] = ladders[i].getX();
+        }
+        return xs;
+    }
+
+    private static double[] laddersX(double[] points) {
+        double[] xs = new double[points.length / 2];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = points[2 * i];
+        }
+        return xs;
+    }
+
+    /** Returns the centre-based boxes of a sprite placed at each x,y pair, as the game objects build theirs. */
+    private static Rectangle[] boxesAt(double[] points, Image sprite) {
+        Rectangle[] boxes = new Rectangle[points.length / 2];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = new Rectangle(points[2 * i] - sprite.getWidth() / 2, points[2 * i + 1] - sprite.getHeight() / 2,
+                    sprite.getWidth(), sprite.getHeight());
+        }
+        return boxes;
+    }
+
+    /**
+     * Finds the floor whose surface is at a point.
+     *
+     * @param x    The x-coordinate of the point.
+     * @param feet The y-coordinate of the point, such as the bottom of a character.
+     * @return The floor, or -1 if there is no floor at that point.
+     */
+    public int floorAt(double x, double feet) {
+        for (int floor = 0; floor < FLOOR_TOP.length; floor++) {
+            if (Math.abs(FLOOR_TOP[floor] - feet) <= TOLERANCE && isAbove(floor, x)) {
+                return floor;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the nearest floor at or below a point, the one a character there stands on or will land on.
+     *
+     * @param x    The x-coordinate of the point.
+     * @param feet The y-coordinate of the point, such as the bottom of a character.
+     * @return The floor, or -1 if there is no floor below the point.
+     */
+    public int floorBelow(double x, double feet) {
+        for (int floor = 0; floor < FLOOR_TOP.length; floor++) {
+            if (FLOOR_TOP[floor] >= feet - TOLERANCE && isAbove(floor, x)) {
+                return floor;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Makes a point the target of the chase, searching for the way to it again only if it is on
+     * a different floor from before. A point in the air counts as being on the floor below it.
+     * A search already under way for an older target starts over.
+     *
+     * @param x    The x-coordinate of the target, usually Mario's.
+     * @param feet The bottom of the target.
+     */
+    public void follow(double x, double feet) {
+        int floor = floorBelow(x, feet);
+        if (floor == (searching ? searchFloor : targetFloor)) {
+            return;
+        }
+        startSearch(floor);
+        if (!searching) {
+            searching = true;
+            JOBS.submit(this);
+        }
+    }
+
+    /** Sets up a search outwards from a floor, so each floor reached learns which ladder leads back towards it. */
+    private void startSearch(int floor) {
+        searchFloor = floor;
+        Arrays.fill(SEARCH_NEXT, -1);
+        Arrays.fill(SEARCH_REACHED, false);
+        searchHead = 0;
+        searchTail = 0;
+        if (floor >= 0) {
+            SEARCH_QUEUE[searchTail++] = floor;
+            SEARCH_REACHED[floor] = true;
+        }
+    }
+
+    /**
+     * Visits the next floor of the search, and puts the result in use once every floor has been visited.
+     * @return {@code true} if the search is finished, {@code false} otherwise.
+     */
+    @Override
+    public boolean step() {
+        if (searchHead == searchTail) {
+            System.arraycopy(SEARCH_NEXT, 0, NEXT_LINK, 0, NEXT_LINK.length);
+            targetFloor = searchFloor;
+            searching = false;
+            return true;
+        }
+        int current = SEARCH_QUEUE[searchHead++];
+        for (int link : FLOOR_LINKS[current]) {
+            int other = LINK_LOWER[link] == current ? LINK_UPPER[link] : LINK_LOWER[link];
+            if (!SEARCH_REACHED[other]) {
+                SEARCH_REACHED[other] = true;
+                SEARCH_NEXT[other] = link;
+                SEARCH_QUEUE[searchTail++] = other;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the way to the target and any search under way, for saving the game.
+     *
+     * @param out The stream to write to.
+     * @throws IOException if the stream cannot be written.
+     */
+    public void writeState(DataOutputStream out) throws IOException {
+        out.writeInt(targetFloor);
+        for (int link : NEXT_LINK) {
+            out.writeInt(link);
+        }
+        out.writeBoolean(searching);
+        if (searching) {
+            out.writeInt(searchFloor);
+            out.writeInt(searchHead);
+            out.writeInt(searchTail);
+            for (int i = 0; i < FLOOR_TOP.length; i++) {
+                out.writeInt(SEARCH_NEXT[i]);
+                out.writeInt(SEARCH_QUEUE[i]);
+                out.writeBoolean(SEARCH_REACHED[i]);
+            }
+        }
+    }
+
+    /**
+     * Restores the state written by {@link #writeState}, putting a search that was under way
+     * back on the job queue. The queue must have been cleared first.
+     *
+     * @param in The stream to read from.
+     * @throws IOException if the stream cannot be read.
+     */
+    public void readState(DataInputStream in) throws IOException {
+        targetFloor = in.readInt();
+        for (int i = 0; i < NEXT_LINK.length; i++) {
+            NEXT_LINK[i] = in.readInt();
+        }
+        searching = in.readBoolean();
+        if (searching) {
+            searchFloor = in.readInt();
+            searchHead = in.readInt();
+            searchTail = in.readInt();
+            for (int i = 0; i < FLOOR_TOP.length; i++) {
+                SEARCH_NEXT[i] = in.readInt();
+                SEARCH_QUEUE[i] = in.readInt();
+                SEARCH_REACHED[i] = in.readBoolean();
+            }
+            if (searchHead < 0 || searchHead > searchTail || searchTail > FLOOR_TOP.length) {
+                throw new IOException("Saved search is at " + searchHead + " of " + searchTail + " floors");
+            }
+            JOBS.submit(this);
+        }
+    }
+
+    /**
+     * Retrieves the floor being chased.
+     * @return The floor of the target, or -1 if the target is below every floor.
+     */
+    public int getTargetFloor() {
+        return targetFloor;
+    }
+
+    /**
+     * Retrieves the ladder to take from a floor towards the target.
+     *
+     * @param floor The floor to leave.
+     * @return The ladder, or -1 if the floor is the target's or cannot reach it.
+     */
+    public int getNextLink(int floor) {
+        return NEXT_LINK[floor];
+    }
+
+    /**
+     * Retrieves the x-coordinate of a ladder.
+     *
+     * @param link The ladder.
+     * @return The x-coordinate of the ladder's centre.
+     */
+    public double getLinkX(int link) {
+        return LINK_X[link];
+    }
+
+    /**
+     * Retrieves the floor at the other end of a ladder.
+     *
+     * @param link  The ladder.
+     * @param floor The floor at one end.
+     * @return The floor at the other end.
+     */
+    public int getOtherFloor(int link, int floor) {
+        return LINK_LOWER[link] == floor ? LINK_UPPER[link] : LINK_LOWER[link];
+    }
+
+    /**
+     * Retrieves the height of a floor's surface.
+     *
+     * @param floor The floor.
+     * @return The y-coordinate of the top of the floor.
+     */
+    public double getFloorTop(int floor) {
+        return FLOOR_TOP[floor];
+    }
+
+    /**
+     * Retrieves the left end of a floor.
+     *
+     * @param floor The floor.
+     * @return The x-coordinate of the floor's left edge.
+     */
+    public double getFloorLeft(int floor) {
+        return FLOOR_LEFT[floor];
+    }
+
+    /**
+     * Retrieves the right end of a floor.
+     *
+     * @param floor The floor.
+     * @return The x-coordinate of the floor's right edge.
+     */
+    public double getFloorRight(int floor) {
+        return FLOOR_RIGHT[floor];
+    }
+
+    private boolean isAbove(int floor, double x) {
+        return x >= FLOOR_LEFT[floor] && x <= FLOOR_RIGHT[floor];
+    }
+}
@@ -0,0 +1,82 @@
+import org.lwjgl.glfw.GLFW;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL30;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An offscreen image the game is drawn into at a fixed internal resolution.
+ * At the end of each frame it is copied to the window with nearest-neighbour scaling,
+ * so large displays only pay for the pixels of the internal resolution and pixel art stays sharp.
+ * The copy keeps the aspect ratio and leaves black bars where the shapes differ.
+ */
+public class RenderTarget {
+    private final int WIDTH;          // Internal resolution
+    private final int HEIGHT;
+    private final int FRAMEBUFFER;
+    private final int TEXTURE;
+
+    // Reused when querying the window size, to avoid allocating every frame
+    private final int[] displayWidth = new int[1];
+    private final int[] displayHeight = new int[1];
+
+    /**
+     * Creates the offscreen image. Must be called on the render thread after the window exists.
+     *
+     * @param width  The internal width in pixels.
+     * @param height The internal height in pixels.
+     */
+    public RenderTarget(int width, int height) {
+        this.WIDTH = width;
+        this.HEIGHT = height;
+
+        this.TEXTURE = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, TEXTURE);
+        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA8, width, height, 0,
+                GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+
+        this.FRAMEBUFFER = GL30.glGenFramebuffers();
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, FRAMEBUFFER);
+        GL30.glFramebufferTexture2D(GL30.GL_FRAMEBUFFER, GL30.GL_COLOR_ATTACHMENT0,
+                GL11.GL_TEXTURE_2D, TEXTURE, 0);
+        if (GL30.glCheckFramebufferStatus(GL30.GL_FRAMEBUFFER) != GL30.GL_FRAMEBUFFER_COMPLETE) {
+            throw new IllegalStateException("Offscreen render target " + width + "x" + height + " is not supported");
+        }
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+    }
+
+    /**
+     * Sends every following draw call to the offscreen image.
+     */
+    public void begin() {
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, FRAMEBUFFER);
+        GL11.glViewport(0, 0, WIDTH, HEIGHT);
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+    }
+
+    /**
+     * Copies the offscreen image to the window, scaled to fit with nearest-neighbour filtering.
+     */
+    public void end() {
+        GLFW.glfwGetFramebufferSize(GLFW.glfwGetCurrentContext(), displayWidth, displayHeight);
+
+        // Largest scale that fits, centred
+        double scale = Math.min((double) displayWidth[0] / WIDTH, (double) displayHeight[0] / HEIGHT);
+        int scaledWidth = (int) (WIDTH * scale);
+        int scaledHeight = (int) (HEIGHT * scale);
+        int left = (displayWidth[0] - scaledWidth) / 2;
+        int bottom = (displayHeight[0] - scaledHeight) / 2;
+
+        GL30.glBindFramebuffer(GL30.GL_READ_FRAMEBUFFER, FRAMEBUFFER);
+        GL30.glBindFramebuffer(GL30.GL_DRAW_FRAMEBUFFER, 0);
+        GL11.glViewport(0, 0, displayWidth[0], displayHeight[0]);
+        GL11.glClear(GL11.GL_COLOR_BUFFER_BIT);
+        GL30.glBlitFramebuffer(0, 0, WIDTH, HEIGHT,
+                left, bottom, left + scaledWidth, bottom + scaledHeight,
+                GL11.GL_COLOR_BUFFER_BIT, GL11.GL_NEAREST);
+        GL30.glBindFramebuffer(GL30.GL_FRAMEBUFFER, 0);
+    }
+}
@@ -0,0 +1,332 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and encodes replay files.
+ * A replay is a header followed by segments. Each segment starts with a keyframe, the full saved
+ * state of the gameplay screen, followed by the controls of every frame until the next keyframe:
+ * <pre>
+ *   int    magic ("DKRP"), int format version
+ *   segment:
+ *     int    length of the rest of the segment
+ *     long   first frame, int frame count
+ *     int    keyframe length, keyframe bytes
+ *     int    controls length, controls as varint pairs of (change from the previous mask, repeat count)
+ *     long   CRC32 of the segment after the length
+ *   index: per segment (long first frame, long file offset), long frame count, int segment count, int magic ("DKRI")
+ * </pre>
+ * Controls rarely change from frame to frame, so a run of equal masks costs two or three bytes.
+ * The index lets a reader seek to any frame with a binary search; a replay cut off before its index
+ * was written is still readable by walking the segments.
+ */
+public class ReplayFile {
+    private static final int MAGIC = 0x444B5250;         // "DKRP"
+    private static final int VERSION = 1;
+    private static final int INDEX_MAGIC = 0x444B5249;   // "DKRI"
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int INDEX_TAIL_BYTES = Long.BYTES + 2 * Integer.BYTES;
+
+    private final MappedByteBuffer DATA;
+    private final long[] FIRST_FRAMES;   // First frame of each segment, ascending
+    private final int[] OFFSETS;         // File offset of each segment
+    private final long FRAME_COUNT;
+
+    private ReplayFile(MappedByteBuffer data, long[] firstFrames, int[] offsets, long frameCount) {
+        this.DATA = data;
+        this.FIRST_FRAMES = firstFrames;
+        this.OFFSETS = offsets;
+        this.FRAME_COUNT = frameCount;
+    }
+
+    /**
+     * Opens a replay file by memory-mapping it.
+     *
+     * @param path The replay file.
+     * @return The opened replay.
+     * @throws IOException if the file cannot be read or is not a replay.
+     */
+    public static ReplayFile open(Path path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r");
+             FileChannel channel = file.getChannel()) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.limit() < HEADER_BYTES || data.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not a replay");
+            }
+            if (data.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException(path + " has replay version " + data.getInt(Integer.BYTES) + ", expected " + VERSION);
+            }
+            ReplayFile replay = readIndex(data);
+            if (replay == null) {
+                // The game stopped before the index was written
+                replay = scan(data);
+            }
+            if (replay.FIRST_FRAMES.length == 0) {
+                throw new IOException(path + " has no recorded frames");
+            }
+            return replay;
+        }
+    }
+
+    /**
+     * Finds the newest replay file in a directory.
+     *
+     * @param directory The directory holding replay files.
+     * @return The newest replay file, or {@code null} if there is none.
+     * @throws IOException if the directory cannot be listed.
+     */
+    public static Path findLatest(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".rpl"))
+                    .max((a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()))
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * Retrieves the number of recorded frames.
+     * @return The number of recorded frames.
+     */
+    public long getFrameCount() {
+        return FRAME_COUNT;
+    }
+
+    /**
+     * Retrieves the number of segments.
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        return FIRST_FRAMES.length;
+    }
+
+    /**
+     * Finds the segment holding a frame.
+     *
+     * @param frame The frame to find.
+     * @return The index of the last segment starting at or before the frame.
+     */
+    public int findSegment(long frame) {
+        int low = 0;
+        int high = FIRST_FRAMES.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (FIRST_FRAMES[mid] <= frame) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Retrieves the first frame of a segment.
+     *
+     * @param segment The segment index.
+     * @return The first frame of the segment.
+     */
+    public long getFirstFrame(int segment) {
+        return FIRST_FRAMES[segment];
+    }
+
+    /**
+     * Reads the keyframe at the start of a segment.
+     *
+     * @param segment The segment index.
+     * @return The saved state of the gameplay screen.
+     */
+    public byte[] readKeyframe(int segment) {
+        ByteBuffer buffer = segmentBody(segment);
+        buffer.position(buffer.position() + Long.BYTES + Integer.BYTES);
+        byte[] keyframe = new byte[buffer.getInt()];
+        buffer.get(keyframe);
+        return keyframe;
+    }
+
+    /**
+     * Reads the controls of every frame of a segment.
+     *
+     * @param segment The segment index.
+     * @return The controls bitmask of each frame.
+     */
+    public int[] readControls(int segment) {
+        ByteBuffer buffer = segmentBody(segment);
+        buffer.position(buffer.position() + Long.BYTES);
+        int[] masks = new int[buffer.getInt()];
+        int keyframeLength = buffer.getInt();
+        buffer.position(buffer.position() + keyframeLength + Integer.BYTES);   // Skip the keyframe and controls length
+
+        int mask = 0;
+        int frame = 0;
+        while (frame < masks.length) {
+            mask ^= getVarint(buffer);
+            int repeat = getVarint(buffer);
+            for (int i = 0; i < repeat; i++) {
+                masks[frame++] = mask;
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Encodes one segment.
+     *
+     * @param firstFrame The first frame of the segment.
+     * @param keyframe   The saved state of the gameplay screen before the first frame.
+     * @param masks      The controls bitmask of each frame.
+     * @param count      The number of frames in the segment.
+     * @return The encoded segment.
+     */
+    public static byte[] encodeSegment(long firstFrame, byte[] keyframe, int[] masks, int count) {
+        // 1) Controls as runs of equal masks
+        ByteArrayOutputStream controls = new ByteArrayOutputStream();
+        int previous = 0;
+        int frame = 0;
+        while (frame < count) {
+            int run = 1;
+            while (frame + run < count && masks[frame + run] == masks[frame]) {
+                run++;
+            }
+            putVarint(controls, masks[frame] ^ previous);
+            putVarint(controls, run);
+            previous = masks[frame];
+            frame += run;
+        }
+
+        // 2) Body and checksum
+        int bodyLength = Long.BYTES + Integer.BYTES + Integer.BYTES + keyframe.length + Integer.BYTES + controls.size();
+        ByteBuffer segment = ByteBuffer.allocate(Integer.BYTES + bodyLength + Long.BYTES);
+        segment.putInt(bodyLength + Long.BYTES);
+        segment.putLong(firstFrame).putInt(count);
+        segment.putInt(keyframe.length).put(keyframe);
+        segment.putInt(controls.size()).put(controls.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(segment.array(), Integer.BYTES, bodyLength);
+        segment.putLong(crc.getValue());
+        return segment.array();
+    }
+
+    /**
+     * Encodes the file header.
+     *
+     * @return The header bytes.
+     */
+    public static byte[] encodeHeader() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).array();
+    }
+
+    /**
+     * Encodes the index written at the end of a finished replay.
+     *
+     * @param firstFrames The first frame of each segment.
+     * @param offsets     The file offset of each segment.
+     * @param frameCount  The number of recorded frames.
+     * @return The index bytes.
+     */
+    public static byte[] encodeIndex(List<Long> firstFrames, List<Long> offsets, long frameCount) {
+        ByteBuffer index = ByteBuffer.allocate(firstFrames.size() * 2 * Long.BYTES + INDEX_TAIL_BYTES);
+        for (int i = 0; i < firstFrames.size(); i++) {
+            index.putLong(firstFrames.get(i)).putLong(offsets.get(i));
+        }
+        index.putLong(frameCount).putInt(firstFrames.size()).putInt(INDEX_MAGIC);
+        return index.array();
+    }
+
+    /** Reads the index at the end of the file, or returns {@code null} if there is no valid index. */
+    private static ReplayFile readIndex(MappedByteBuffer data) {
+        int size = data.limit();
+        if (size < HEADER_BYTES + INDEX_TAIL_BYTES || data.getInt(size - Integer.BYTES) != INDEX_MAGIC) {
+            return null;
+        }
+        int count = data.getInt(size - 2 * Integer.BYTES);
+        long frameCount = data.getLong(size - INDEX_TAIL_BYTES);
+        long start = size - INDEX_TAIL_BYTES - (long) count * 2 * Long.BYTES;
+        if (count < 0 || start < HEADER_BYTES) {
+            return null;
+        }
+        long[] firstFrames = new long[count];
+        int[] offsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            firstFrames[i] = data.getLong((int) start + i * 2 * Long.BYTES);
+            long offset = data.getLong((int) start + i * 2 * Long.BYTES + Long.BYTES);
+            if (offset < HEADER_BYTES || offset >= start) {
+                return null;
+            }
+            offsets[i] = (int) offset;
+        }
+        return new ReplayFile(data, firstFrames, offsets, frameCount);
+    }
+
+    /** Walks the segments from the start, stopping at the first one that is incomplete or damaged. */
+    private static ReplayFile scan(MappedByteBuffer data) {
+        List<Long> firstFrames = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        long frameCount = 0;
+        int offset = HEADER_BYTES;
+        while (offset + Integer.BYTES <= data.limit()) {
+            int length = data.getInt(offset);
+            if (length < Long.BYTES || length > data.limit() - offset - Integer.BYTES) {
+                break;
+            }
+            ByteBuffer body = data.duplicate();
+            body.position(offset + Integer.BYTES).limit(offset + Integer.BYTES + length - Long.BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if (crc.getValue() != data.getLong(offset + Integer.BYTES + length - Long.BYTES)) {
+                break;
+            }
+            long firstFrame = body.getLong();
+            firstFrames.add(firstFrame);
+            offsets.add(offset);
+            frameCount = firstFrame + body.getInt();
+            offset += Integer.BYTES + length;
+        }
+
+        long[] frames = new long[firstFrames.size()];
+        int[] starts = new int[offsets.size()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = firstFrames.get(i);
+            starts[i] = offsets.get(i);
+        }
+        return new ReplayFile(data, frames, starts, frameCount);
+    }
+
+    /** Returns a buffer positioned at the body of a segment, just after its length. */
+    private ByteBuffer segmentBody(int segment) {
+        ByteBuffer buffer = DATA.duplicate();
+        buffer.position(OFFSETS[segment] + Integer.BYTES);
+        return buffer;
+    }
+
+    private static void putVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,109 @@
+import bagel.Input;
+import bagel.Keys;
+
+import java.io.IOException;
+
+/**
+ * Plays back a recorded game.
+ * The gameplay screen is rebuilt from a keyframe and then updated with the recorded controls,
+ * so it runs exactly as it did while recording. LEFT and RIGHT jump five seconds back or forward
+ * by restoring the nearest earlier keyframe and replaying only the frames after it.
+ */
+public class ReplayPlayer {
+    private static final int SEEK_FRAMES = 300;   // LEFT / RIGHT jump 5 seconds
+
+    private final GameConfig CONFIG;
+    private final ReplayFile REPLAY;
+
+    private GamePlayScreen screen;
+    private int segment;
+    private long segmentStart;
+    private int[] controls;
+    private long frame;
+
+    /**
+     * Prepares a replay to play from its first frame.
+     *
+     * @param config The game settings.
+     * @param replay The replay to play.
+     * @throws IOException if the first keyframe cannot be restored.
+     */
+    public ReplayPlayer(GameConfig config, ReplayFile replay) throws IOException {
+        this.CONFIG = config;
+        this.REPLAY = replay;
+        seek(0);
+    }
+
+    /**
+     * Plays one frame, or jumps when LEFT or RIGHT is pressed.
+     *
+     * @param input The current mouse/keyboard input.
+     * @return {@code true} once the replay has finished, {@code false} otherwise.
+     */
+    public boolean update(Input input) {
+        try {
+            if (input.wasPressed(Keys.LEFT)) {
+                seek(frame - SEEK_FRAMES);
+            } else if (input.wasPressed(Keys.RIGHT)) {
+                seek(frame + SEEK_FRAMES);
+            }
+            return !step();
+        } catch (IOException ex) {
+            System.err.println("Replay stopped: " + ex.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Moves playback to a frame: restores the last keyframe before it and replays the frames in between.
+     * The frames in between are not drawn; only the frame played after the seek is.
+     *
+     * @param target The frame to move to, clamped to the recorded frames.
+     * @throws IOException if the keyframe cannot be restored.
+     */
+    public void seek(long target) throws IOException {
+        target = Math.max(0, Math.min(target, REPLAY.getFrameCount()));
+        loadSegment(REPLAY.findSegment(target));
+        boolean drawing = Camera.isDrawing();
+        Camera.setDrawing(false);
+        try {
+            while (frame < target && step()) {
+                // Catch up to the target frame
+            }
+        } finally {
+            Camera.setDrawing(drawing);
+        }
+    }
+
+    /**
+     * Retrieves the frame about to be played.
+     * @return The frame about to be played.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /** Updates the screen with the next recorded frame; returns {@code false} at the end of the replay. */
+    private boolean step() throws IOException {
+        if (frame >= REPLAY.getFrameCount()) {
+            return false;
+        }
+        if (frame - segmentStart >= controls.length) {
+            if (segment + 1 >= REPLAY.getSegmentCount()) {
+                return false;
+            }
+            loadSegment(segment + 1);
+        }
+        screen.update(new Controls(controls[(int) (frame - segmentStart)]));
+        frame++;
+        return true;
+    }
+
+    private void loadSegment(int index) throws IOException {
+        segment = index;
+        segmentStart = REPLAY.getFirstFrame(index);
+        controls = REPLAY.readControls(index);
+        screen = GamePlayScreen.restore(CONFIG, REPLAY.readKeyframe(index));
+        frame = segmentStart;
+    }
+}
@@ -0,0 +1,137 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records a game to a replay file, see {@link ReplayFile} for the layout.
+ * Every frame only the controls are kept; a keyframe of the whole gameplay screen is taken every
+ * few seconds and whenever a new level starts, so playback can jump to any point by restoring the
+ * nearest keyframe and replaying only the frames after it.
+ * Keyframes are taken on the render thread, since the screen is not safe to read elsewhere, but they
+ * are a few kilobytes at most; encoding and writing happen on a background thread.
+ */
+public class ReplayRecorder {
+    private static final int KEYFRAME_INTERVAL = 300;   // Frames between keyframes (5 seconds)
+
+    private final ExecutorService WRITER;
+
+    // Render thread only
+    private final int[] MASKS = new int[KEYFRAME_INTERVAL];
+    private int maskCount = 0;
+    private long frame = 0;
+    private long segmentStart = 0;
+    private byte[] keyframe;
+    private GamePlayScreen segmentScreen;
+
+    // Writer thread only
+    private FileChannel channel;
+    private final List<Long> FIRST_FRAMES = new ArrayList<>();
+    private final List<Long> OFFSETS = new ArrayList<>();
+
+    /**
+     * Starts a replay file. The file is created on the background thread.
+     *
+     * @param path The replay file to write.
+     */
+    public ReplayRecorder(Path path) {
+        this.WRITER = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replay-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        WRITER.submit(() -> {
+            try {
+                Files.createDirectories(path.getParent());
+                channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+                writeFully(ReplayFile.encodeHeader());
+            } catch (IOException ex) {
+                System.err.println("Replay not recorded: " + ex.getMessage());
+                channel = null;
+            }
+        });
+    }
+
+    /**
+     * Records one frame. Call this before the screen is updated with the controls.
+     *
+     * @param screen   The gameplay screen about to be updated.
+     * @param controls The controls the screen is updated with.
+     */
+    public void record(GamePlayScreen screen, Controls controls) {
+        if (screen != segmentScreen || maskCount == KEYFRAME_INTERVAL) {
+            flushSegment();
+            segmentScreen = screen;
+            segmentStart = frame;
+            keyframe = screen.saveState();
+        }
+        MASKS[maskCount++] = controls.getMask();
+        frame++;
+    }
+
+    /**
+     * Finishes the replay: writes the last segment and the index, then closes the file.
+     */
+    public void close() {
+        flushSegment();
+        long frameCount = frame;
+        WRITER.submit(() -> {
+            if (channel == null) {
+                return;
+            }
+            try {
+                writeFully(ReplayFile.encodeIndex(FIRST_FRAMES, OFFSETS, frameCount));
+                channel.close();
+            } catch (IOException ex) {
+                System.err.println("Could not finish replay: " + ex.getMessage());
+            }
+            channel = null;
+        });
+        WRITER.shutdown();
+    }
+
+    /** Hands the current segment to the writer thread. */
+    private void flushSegment() {
+        if (maskCount == 0) {
+            return;
+        }
+        long firstFrame = segmentStart;
+        byte[] state = keyframe;
+        int[] masks = Arrays.copyOf(MASKS, maskCount);
+        maskCount = 0;
+        WRITER.submit(() -> {
+            if (channel == null) {
+                return;
+            }
+            try {
+                long offset = channel.position();
+                writeFully(ReplayFile.encodeSegment(firstFrame, state, masks, masks.length));
+                FIRST_FRAMES.add(firstFrame);
+                OFFSETS.add(offset);
+            } catch (IOException ex) {
+                System.err.println("Replay recording stopped: " + ex.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // Already failing
+                }
+                channel = null;
+            }
+        });
+    }
+
+    private void writeFully(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
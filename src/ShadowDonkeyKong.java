@@ -1,6 +1,14 @@
 import bagel.*;
+import org.lwjgl.glfw.GLFW;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.ServiceConfigurationError;
+import java.util.NavigableSet;
 
 /**
  * The main class for the Shadow Donkey Kong game.
@@ -12,18 +20,38 @@ import java.util.ServiceConfigurationError;
  */
 public class ShadowDonkeyKong extends AbstractGame {
 
-    private final Properties GAME_PROPS;
-    private final Properties MESSAGE_PROPS;
+    private final GameConfig CONFIG;
 
     private HomeScreen homeScreen;
     private GamePlayScreen gamePlayScreen;
     private GameEndScreen gameEndScreen;
+    private final GameEndScreen END_SCREEN;       // Reused for every game over / victory
+    private final LevelPipeline LEVEL_PIPELINE;   // Builds the next level in the background
+    private final HighScores HIGH_SCORES;         // Every finished game, saved between runs
+    private final Checkpoints CHECKPOINTS;        // The game in progress, saved against crashes
+    private final Telemetry TELEMETRY;            // Gameplay events of this session
+    private TickTracer tickTracer;                // Only used when frames are traced
+    private RenderTarget renderTarget;            // Only used when the display size differs from the game size
+    private LevelWatcher levelWatcher;            // Only used while editing levels
+    private boolean reloadingLevel = false;       // Whether the level being played is being rebuilt
+    private ReplayRecorder replayRecorder;        // Records the game being played
+    private ReplayPlayer replayPlayer;            // Only used while watching a replay
+    private final TimeScale TIME_SCALE;           // Ticks played per frame of gameplay
+
+    private final NavigableSet<Integer> LEVELS;   // Numbers of every level defined in the properties
 
-    private int level1Score = 0;
-    private int level2Score = 0;
-    private int level1TotalScore = 0;
-    private int level2TotalScore = 0;
+    private int carriedScore = 0;                 // Score carried into the current level from earlier levels
+    private final List<Integer> levelTotalScores = new ArrayList<>();  // Total score of each finished level
     private int timeRemaining = 0;
+    private int framesSinceCheckpoint = 0;
+    private int pendingPresses = 0;   // Jumps and shots pressed in slow motion, waiting for the next tick
+
+    private static final String HIGH_SCORES_DIRECTORY = "scores";   // Where finished games are saved
+    private static final String REPLAY_DIRECTORY = "replays";       // Where every game is recorded
+    private static final String CHECKPOINT_DIRECTORY = "saves";     // Where the game in progress is saved
+    private static final String TELEMETRY_DIRECTORY = "telemetry";  // Where gameplay events are logged
+    private static final String TRACE_DIRECTORY = "trace";          // Where frame traces are written
+    private static final int CHECKPOINT_INTERVAL = 300;             // Save the game in progress every 5 seconds
 
     public static double screenWidth;
 
@@ -31,84 +59,150 @@ public class ShadowDonkeyKong extends AbstractGame {
 
     /**
      * Constructs a new instance of the ShadowDonkeyKong game.
-     * Initializes the game window using provided properties and sets up the home screen.
+     * Initializes the game window using the provided settings and sets up the home screen.
      *
-     * @param gameProps     A {@link Properties} object containing game configuration settings
-     *                      such as window width and height.
-     * @param messageProps  A {@link Properties} object containing localized messages or UI labels,
-     *                      including the title for the home screen.
+     * @param config A {@link GameConfig} holding the game settings such as window width and height,
+     *               and the messages shown on each screen.
      */
-    public ShadowDonkeyKong(Properties gameProps, Properties messageProps) {
-        super(Integer.parseInt(gameProps.getProperty("window.width")),
-                Integer.parseInt(gameProps.getProperty("window.height")),
-                messageProps.getProperty("home.title"));
+    public ShadowDonkeyKong(GameConfig config) {
+        super(config.getWindowWidth(), config.getWindowHeight(), config.getTitle());
+
+        this.CONFIG = config;
+        this.screenWidth = config.getWindowWidth();
+        this.screenHeight = config.getWindowHeight();
+
+        // Decode the gameplay assets in the background while the home screen is showing
+        AssetLoader.start(CONFIG);
+        homeScreen = new HomeScreen(CONFIG);
+        END_SCREEN = new GameEndScreen(CONFIG);
+        HIGH_SCORES = new HighScores(Paths.get(HIGH_SCORES_DIRECTORY));
 
-        this.GAME_PROPS = gameProps;
-        this.MESSAGE_PROPS = messageProps;
-        this.screenWidth = Integer.parseInt(gameProps.getProperty("window.width"));
-        this.screenHeight = Integer.parseInt(gameProps.getProperty("window.height"));
+        // Get the first level ready while the home screen is showing
+        LEVELS = CONFIG.getLevels();
+        LEVEL_PIPELINE = new LevelPipeline(CONFIG);
+        LEVEL_PIPELINE.prepare(LEVELS.first());
+        if (config.isHotReload()) {
+            levelWatcher = new LevelWatcher(LEVELS);
+        }
+
+        TIME_SCALE = new TimeScale(CONFIG.getTimeScale());
+        TELEMETRY = new Telemetry(Paths.get(TELEMETRY_DIRECTORY));
+        if (config.isTrace()) {
+            tickTracer = new TickTracer(Paths.get(TRACE_DIRECTORY));
+        }
+
+        // Carry on with a game that was cut short by a crash or power cut
+        CHECKPOINTS = new Checkpoints(Paths.get(CHECKPOINT_DIRECTORY));
+        Checkpoints.Checkpoint checkpoint = CHECKPOINTS.load();
+        if (checkpoint != null) {
+            resume(checkpoint);
+        }
 
-        homeScreen = new HomeScreen(GAME_PROPS, MESSAGE_PROPS);
+        // Optionally draw at the game resolution and scale the result up to a larger display
+        if (config.getDisplayWidth() > 0) {
+            GLFW.glfwSetWindowSize(GLFW.glfwGetCurrentContext(),
+                    config.getDisplayWidth(), config.getDisplayHeight());
+            renderTarget = new RenderTarget((int) screenWidth, (int) screenHeight);
+        }
     }
 
 
     /**
-     * Render the relevant screen based on the keyboard input given by the user and the status of the gameplay.
+     * Render the relevant screen, drawing into the offscreen render target when upscaling is enabled.
      * @param input The current mouse/keyboard input.
      */
     @Override
     protected void update(Input input) {
+        if (renderTarget == null) {
+            updateScreens(input);
+            return;
+        }
+        renderTarget.begin();
+        updateScreens(input);
+        renderTarget.end();
+    }
+
+    /**
+     * Render the relevant screen based on the keyboard input given by the user and the status of the gameplay.
+     * @param input The current mouse/keyboard input.
+     */
+    private void updateScreens(Input input) {
         if (input.wasPressed(Keys.ESCAPE)) {
             Window.close();
         }
+        if (levelWatcher != null) {
+            reloadChangedLevels();
+        }
 
+        // Replay
+        if (replayPlayer != null) {
+            if (replayPlayer.update(input)) {
+                replayPlayer = null;
+            }
+        }
         // Home Screen
-        if (gamePlayScreen == null && gameEndScreen == null) {
+        else if (gamePlayScreen == null && gameEndScreen == null) {
             int startLevel = homeScreen.update(input);
-            if (startLevel == 1 || startLevel == 2) {
+            LEVEL_PIPELINE.update();
+            if (LEVELS.contains(startLevel)) {
                 // Home screen is the starting point of the game and the initial score is always 0
-                gamePlayScreen = new GamePlayScreen(GAME_PROPS, startLevel, 0);
+                replayRecorder = new ReplayRecorder(Paths.get(REPLAY_DIRECTORY,
+                        "replay-" + System.currentTimeMillis() + ".rpl"));
+                startLevel(startLevel, 0);
+            } else if (input.wasPressed(Keys.R)) {
+                watchLatestReplay();
             }
         }
         // Gameplay Screen
         else if (gamePlayScreen != null && gameEndScreen == null) {
-            if (gamePlayScreen.update(input)) {
+            LEVEL_PIPELINE.update();
+            TIME_SCALE.update(input);
+            boolean isLevelOver = playTicks(Controls.read(input));
+            if (isLevelOver) {
                 boolean isWon = gamePlayScreen.isLevelCompleted(); // Track the game status
                 int currentLevel = gamePlayScreen.getLevel();      // Track the game level
                 timeRemaining = gamePlayScreen.getSecondsLeft();   // Store the time left of the game
-                // Store the score for level 1 only
-                if (currentLevel == 1) {
-                    level1Score = gamePlayScreen.getScore();
-                    // Calculate total level1 score individually
-                    level1TotalScore = (int) (level1Score * Scores.POINTS_WEIGHT+ timeRemaining * Scores.TIME_WEIGHT);
-
-                    if (isWon) {
-                        // Move to Level 2, carry over Level 1 score
-                        gamePlayScreen = new GamePlayScreen(GAME_PROPS, 2, level1Score);
-                        // The level2 score starts from 0.
-                        level2Score = 0;
-                        level2TotalScore = 0;
-                        return;
-                    } else {
-                        // Game ends after Level 1
-                        gameEndScreen = new GameEndScreen(GAME_PROPS, MESSAGE_PROPS);
-                        gameEndScreen.setIsWon(false);
-                        gameEndScreen.setFinalScore(level1TotalScore, false);  // Only consider total score of level1
-                        gamePlayScreen = null;
-                    }
-                } else if (currentLevel == 2) {
-                    // Only consider level2 score itself, regardless level1
-                    level2Score = gamePlayScreen.getScore() - level1Score;
-                    // Calculate total level2 score individually
-                    level2TotalScore = (int) (level2Score * Scores.POINTS_WEIGHT + timeRemaining * Scores.TIME_WEIGHT);
-
-                    // Game ends after Level 2
-                    gameEndScreen = new GameEndScreen(GAME_PROPS, MESSAGE_PROPS);
-                    gameEndScreen.setIsWon(isWon);
-                    // Calculate the total final score by adding level1 score and level2 score separately
-                    gameEndScreen.setFinalScore(level1TotalScore + level2TotalScore, isWon);
-                    gamePlayScreen = null;
+
+                // Only consider this level's score itself, regardless of the carried score
+                int levelScore = gamePlayScreen.getScore() - carriedScore;
+                // Calculate total score of this level individually
+                levelTotalScores.add((int) (levelScore * Scores.POINTS_WEIGHT + timeRemaining * Scores.TIME_WEIGHT));
+
+                Integer nextLevel = LEVELS.higher(currentLevel);
+                if (isWon && nextLevel != null) {
+                    // Move to the next level, carrying over the score so far
+                    startLevel(nextLevel, gamePlayScreen.getScore());
+                    return;
+                }
+
+                // Game ends; the final score adds up every level's total score separately
+                int finalScore = 0;
+                for (int levelTotal : levelTotalScores) {
+                    finalScore += levelTotal;
+                }
+                gameEndScreen = END_SCREEN;
+                gameEndScreen.setIsWon(isWon);
+                gameEndScreen.setFinalScore(finalScore, isWon);
+
+                // Save the game and show where it ranks
+                int[] levelScores = new int[levelTotalScores.size()];
+                for (int i = 0; i < levelScores.length; i++) {
+                    levelScores[i] = levelTotalScores.get(i);
                 }
+                int rank = HIGH_SCORES.record(new HighScores.Entry(System.currentTimeMillis(),
+                        isWon ? finalScore : 0, timeRemaining, isWon, levelScores));
+                gameEndScreen.setHighScores(rank, HIGH_SCORES.getGameCount(),
+                        HIGH_SCORES.getTop(CONFIG.getHighScoreCount()));
+                if (replayRecorder != null) {
+                    replayRecorder.close();
+                    replayRecorder = null;
+                }
+                CHECKPOINTS.clear();
+                TELEMETRY.flush();
+                if (tickTracer != null) {
+                    tickTracer.flush();
+                }
+                gamePlayScreen = null;
             }
         }
         // Game End Screen
@@ -116,11 +210,11 @@ public class ShadowDonkeyKong extends AbstractGame {
             if (gameEndScreen.update(input)) {
                 gamePlayScreen = null;
                 gameEndScreen = null;
-                level1Score = 0;
-                level2Score = 0;
-                level1TotalScore = 0;
-                level2TotalScore = 0;
+                carriedScore = 0;
+                levelTotalScores.clear();
                 timeRemaining = 0;
+                // Get a fresh first level ready for the next game
+                LEVEL_PIPELINE.prepare(LEVELS.first());
             }
 
 
@@ -134,6 +228,139 @@ public class ShadowDonkeyKong extends AbstractGame {
         }
     }
 
+    /**
+     * Plays the ticks of this frame allowed by the time scale, drawing only the last one.
+     *
+     * @param controls The player's controls for this frame.
+     * @return {@code true} if the level ends, {@code false} otherwise.
+     */
+    private boolean playTicks(Controls controls) {
+        controls = controls.withPresses(pendingPresses);
+        int ticks = TIME_SCALE.nextTicks();
+        if (ticks == 0) {
+            // Slow motion: show the level as it is until the next tick is due, keeping any press for it
+            pendingPresses = controls.getPresses();
+            gamePlayScreen.draw();
+            return false;
+        }
+        pendingPresses = 0;
+        boolean isLevelOver = false;
+        for (int tick = 1; tick <= ticks && !isLevelOver; tick++) {
+            Camera.setDrawing(tick == ticks);
+            if (replayRecorder != null) {
+                replayRecorder.record(gamePlayScreen, controls);
+            }
+            isLevelOver = gamePlayScreen.update(controls);
+            if (!isLevelOver && ++framesSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                saveCheckpoint();
+            }
+            // Presses only count on the first tick, so one press jumps once
+            controls = controls.held();
+        }
+        if (!Camera.isDrawing()) {
+            // The level ended on a tick that was not drawn
+            Camera.setDrawing(true);
+            gamePlayScreen.draw();
+        }
+        return isLevelOver;
+    }
+
+    /**
+     * Rebuilds every level whose file has been edited, and swaps the rebuilt level being played
+     * in between two frames once it is ready, so the game carries on where it was.
+     */
+    private void reloadChangedLevels() {
+        Integer changed;
+        while ((changed = levelWatcher.pollChanged()) != null) {
+            LEVEL_PIPELINE.rebuild(changed);
+            if (gamePlayScreen != null && changed == gamePlayScreen.getLevel()) {
+                reloadingLevel = true;
+            }
+        }
+        if (reloadingLevel && gamePlayScreen != null) {
+            GamePlayScreen reloaded = LEVEL_PIPELINE.poll(gamePlayScreen.getLevel());
+            if (reloaded != null) {
+                reloaded.carryOver(gamePlayScreen);
+                gamePlayScreen = reloaded;
+                reloadingLevel = false;
+            }
+        }
+    }
+
+    /**
+     * Saves the game in progress; the state is captured here and written in the background.
+     */
+    private void saveCheckpoint() {
+        framesSinceCheckpoint = 0;
+        int[] levelScores = new int[levelTotalScores.size()];
+        for (int i = 0; i < levelScores.length; i++) {
+            levelScores[i] = levelTotalScores.get(i);
+        }
+        CHECKPOINTS.save(new Checkpoints.Checkpoint(carriedScore, levelScores, gamePlayScreen.saveState()));
+    }
+
+    /**
+     * Puts the game back in the state of a checkpoint, or starts on the home screen if it cannot be restored.
+     *
+     * @param checkpoint The saved game in progress.
+     */
+    private void resume(Checkpoints.Checkpoint checkpoint) {
+        try {
+            gamePlayScreen = GamePlayScreen.restore(CONFIG, checkpoint.getState());
+        } catch (IOException ex) {
+            System.err.println("Could not resume the saved game: " + ex.getMessage());
+            CHECKPOINTS.clear();
+            return;
+        }
+        gamePlayScreen.setTelemetry(TELEMETRY);
+        gamePlayScreen.setTracer(tickTracer);
+        carriedScore = checkpoint.getCarriedScore();
+        for (int levelTotal : checkpoint.getLevelTotalScores()) {
+            levelTotalScores.add(levelTotal);
+        }
+        replayRecorder = new ReplayRecorder(Paths.get(REPLAY_DIRECTORY,
+                "replay-" + System.currentTimeMillis() + ".rpl"));
+        Integer nextLevel = LEVELS.higher(gamePlayScreen.getLevel());
+        if (nextLevel != null) {
+            LEVEL_PIPELINE.prepare(nextLevel);
+        }
+    }
+
+    /**
+     * Starts playing back the most recently recorded game, if there is one.
+     */
+    private void watchLatestReplay() {
+        try {
+            Path latest = ReplayFile.findLatest(Paths.get(REPLAY_DIRECTORY));
+            if (latest != null) {
+                replayPlayer = new ReplayPlayer(CONFIG, ReplayFile.open(latest));
+            }
+        } catch (IOException ex) {
+            System.err.println("Could not play replay: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Switches to a level and starts building the level after it in the background.
+     *
+     * @param level      The level to play.
+     * @param startScore The score carried over from earlier levels.
+     */
+    private void startLevel(int level, int startScore) {
+        carriedScore = startScore;
+        reloadingLevel = false;
+        pendingPresses = 0;
+        gamePlayScreen = LEVEL_PIPELINE.take(level, startScore);
+        gamePlayScreen.setTelemetry(TELEMETRY);
+        gamePlayScreen.setTracer(tickTracer);
+        // Save as soon as the first frame of the level has been played
+        framesSinceCheckpoint = CHECKPOINT_INTERVAL;
+        Integer nextLevel = LEVELS.higher(level);
+        if (nextLevel != null) {
+            LEVEL_PIPELINE.prepare(nextLevel);
+        }
+    }
+
     /**
      * Retrieves the width of the game screen.
      *
@@ -163,7 +390,7 @@ public class ShadowDonkeyKong extends AbstractGame {
     public static void main(String[] args) {
         Properties gameProps = IOUtils.readPropertiesFile("res/app.properties");
         Properties messageProps = IOUtils.readPropertiesFile("res/message.properties");
-        ShadowDonkeyKong game = new ShadowDonkeyKong(gameProps, messageProps);
+        ShadowDonkeyKong game = new ShadowDonkeyKong(new GameConfig(gameProps, messageProps));
         game.run();
     }
 }
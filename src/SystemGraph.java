@@ -0,0 +1,159 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+
+/**
+ * Runs the systems of a tick, such as moving the barrels or the monkeys, as a graph of dependencies.
+ * Each system declares the {@link TickResource}s it reads and writes. A system waits for every
+ * system added before it that writes what it reads or writes, or reads what it writes; the others
+ * can run at the same time on the {@link WorkerPool}.
+ * Systems that could have seen each other's changes always run in the order they were added,
+ * so a tick gives exactly the same result as running every system one after another.
+ * Systems must not draw, since only the render thread may; the tick is drawn once they have all run.
+ */
+public class SystemGraph {
+    /** A system and what it touches. */
+    private static class Entry {
+        private final int index;
+        private final int reads;
+        private final int writes;
+        private final int traceColumn;
+        private final Runnable body;
+        private final List<Integer> successors = new ArrayList<>();
+        private int predecessors = 0;
+        private long nanos = 0;   // Time taken on the last run
+
+        private Entry(int index, int reads, int writes, int traceColumn, Runnable body) {
+            this.index = index;
+            this.reads = reads;
+            this.writes = writes;
+            this.traceColumn = traceColumn;
+            this.body = body;
+        }
+    }
+
+    private final List<Entry> SYSTEMS = new ArrayList<>();
+    private final ArrayDeque<Integer> READY = new ArrayDeque<>();
+    private int[] waiting = new int[0];   // Predecessors each system is still waiting for on this run
+    private CompletionService<Integer> completions;
+
+    /**
+     * Adds a system after the ones already added.
+     *
+     * @param reads       The {@link TickResource}s the system reads.
+     * @param writes      The {@link TickResource}s the system writes.
+     * @param traceColumn The {@link TickTracer} column its time is added to.
+     * @param body        The work of the system.
+     */
+    public void add(int reads, int writes, int traceColumn, Runnable body) {
+        int index = SYSTEMS.size();
+        Entry system = new Entry(index, reads, writes, traceColumn, body);
+        for (int earlier = 0; earlier < index; earlier++) {
+            Entry other = SYSTEMS.get(earlier);
+            if ((other.writes & (system.reads | system.writes)) != 0 || (other.reads & system.writes) != 0) {
+                other.successors.add(index);
+                system.predecessors++;
+            }
+        }
+        SYSTEMS.add(system);
+        waiting = new int[SYSTEMS.size()];
+    }
+
+    /**
+     * Runs every system once.
+     *
+     * @param parallel {@code true} to hand systems that can run together to the worker threads,
+     *                 {@code false} to run them all on the calling thread in the order they were added.
+     */
+    public void run(boolean parallel) {
+        if (!parallel || !hasWorkers()) {
+            for (Entry system : SYSTEMS) {
+                runSystem(system);
+            }
+            return;
+        }
+
+        // 1) Start from the systems that wait for nothing
+        READY.clear();
+        for (int i = 0; i < SYSTEMS.size(); i++) {
+            waiting[i] = SYSTEMS.get(i).predecessors;
+            if (waiting[i] == 0) {
+                READY.addLast(i);
+            }
+        }
+
+        // 2) Hand every ready system but one to the workers and run that one here,
+        //    or wait for a worker to finish one when nothing is ready
+        int finished = 0;
+        while (finished < SYSTEMS.size()) {
+            while (READY.size() > 1) {
+                int index = READY.pollFirst();
+                completions.submit(() -> runSystem(SYSTEMS.get(index)));
+            }
+            int index = READY.isEmpty() ? takeCompleted() : runSystem(SYSTEMS.get(READY.pollFirst()));
+
+            // 3) Release the systems that were only waiting for this one
+            for (int successor : SYSTEMS.get(index).successors) {
+                if (--waiting[successor] == 0) {
+                    READY.addLast(successor);
+                }
+            }
+            finished++;
+        }
+    }
+
+    /**
+     * Retrieves the time the last run spent in the systems traced in a column.
+     * Systems that ran at the same time are all counted, so this can exceed the time the run took.
+     *
+     * @param traceColumn The {@link TickTracer} column.
+     * @return The total nanoseconds of the column's systems.
+     */
+    public long getNanos(int traceColumn) {
+        long total = 0;
+        for (Entry system : SYSTEMS) {
+            if (system.traceColumn == traceColumn) {
+                total += system.nanos;
+            }
+        }
+        return total;
+    }
+
+    /** Runs one system, timing it, and returns its index. */
+    private int runSystem(Entry system) {
+        long start = System.nanoTime();
+        system.body.run();
+        system.nanos = System.nanoTime() - start;
+        return system.index;
+    }
+
+    /** Waits for a worker to finish a system, passing on anything the system threw. */
+    private int takeCompleted() {
+        try {
+            return completions.take().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the systems of the tick", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("A system of the tick failed", cause);
+        }
+    }
+
+    /** Checks whether there are workers to hand systems to, connecting to them on first use. */
+    private boolean hasWorkers() {
+        if (completions == null && WorkerPool.get() != null) {
+            completions = new ExecutorCompletionService<>(WorkerPool.get());
+        }
+        return completions != null;
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Logs gameplay events for one session, such as barrels jumped, monkeys killed and how Mario died.
+ * Recording an event only writes one number into a ring buffer, without locks or allocation;
+ * a background thread empties the buffer once a second and appends the events to the session file
+ * as one batch:
+ * <pre>
+ *   header: int magic ("DKTM"), int format version, long session start in milliseconds since the epoch
+ *   batch:  int payload length, int events dropped since the last batch,
+ *           payload: per event varint frames since the previous event, byte level, byte event
+ *           long CRC32 of the payload
+ * </pre>
+ * If the game records events faster than they are written, the newest events are dropped and counted.
+ */
+public class Telemetry {
+    /** Mario jumped over a barrel. */
+    public static final int BARREL_JUMP = 1;
+    /** Mario destroyed a barrel with the hammer. */
+    public static final int BARREL_DESTROY = 2;
+    /** Mario killed a monkey with the hammer. */
+    public static final int MONKEY_KILL = 3;
+    /** A bullet hit a monkey. */
+    public static final int BULLET_HIT_MONKEY = 4;
+    /** A bullet hit Donkey. */
+    public static final int BULLET_HIT_DONKEY = 5;
+    /** Mario fired a bullet. */
+    public static final int SHOT_FIRED = 6;
+    /** Mario picked up a hammer. */
+    public static final int HAMMER_PICKUP = 7;
+    /** Mario picked up a blaster. */
+    public static final int BLASTER_PICKUP = 8;
+    /** Mario was hit by a barrel. */
+    public static final int DEATH_BARREL = 9;
+    /** Mario was caught by a monkey. */
+    public static final int DEATH_MONKEY = 10;
+    /** Mario was hit by a banana. */
+    public static final int DEATH_BANANA = 11;
+    /** Mario reached Donkey without the hammer. */
+    public static final int DEATH_DONKEY = 12;
+    /** The clock ran out. */
+    public static final int DEATH_TIMEOUT = 13;
+
+    private static final int MAGIC = 0x444B544D;   // "DKTM"
+    private static final int VERSION = 1;
+    private static final int CAPACITY = 4096;      // Events buffered between writes; a power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final long WRITE_PERIOD_MS = 1000;
+
+    // Ring buffer with one writer (render thread) and one reader (telemetry thread)
+    private final long[] EVENTS = new long[CAPACITY];
+    private final AtomicLong HEAD = new AtomicLong();      // Next slot the render thread fills
+    private final AtomicLong TAIL = new AtomicLong();      // Next slot the telemetry thread reads
+    private final AtomicLong DROPPED = new AtomicLong();   // Events lost because the buffer was full
+
+    private final ScheduledExecutorService WRITER;
+    private final Path FILE;
+    private FileChannel channel;   // Telemetry thread only
+    private long droppedWritten = 0;   // Telemetry thread only
+
+    /**
+     * Starts logging a session to a new file in a directory.
+     *
+     * @param directory The directory holding the session files.
+     */
+    public Telemetry(Path directory) {
+        long start = System.currentTimeMillis();
+        this.FILE = directory.resolve("session-" + start + ".tel");
+        this.WRITER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "telemetry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        WRITER.execute(() -> {
+            try {
+                Files.createDirectories(directory);
+                channel = FileChannel.open(FILE, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                writeFully(ByteBuffer.allocate(2 * Integer.BYTES + Long.BYTES)
+                        .putInt(MAGIC).putInt(VERSION).putLong(start).array());
+            } catch (IOException ex) {
+                System.err.println("Telemetry disabled: " + ex.getMessage());
+                channel = null;
+            }
+        });
+        WRITER.scheduleWithFixedDelay(this::writeBatch, WRITE_PERIOD_MS, WRITE_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records an event. Called on the render thread; never blocks.
+     *
+     * @param event One of the event constants.
+     * @param level The level being played.
+     * @param frame The frame of the level the event happened in.
+     */
+    public void record(int event, int level, int frame) {
+        long head = HEAD.get();
+        if (head - TAIL.get() >= CAPACITY) {
+            DROPPED.lazySet(DROPPED.get() + 1);
+            return;
+        }
+        EVENTS[(int) head & MASK] = (long) frame << 32 | (level & 0xFF) << 8 | (event & 0xFF);
+        HEAD.lazySet(head + 1);
+    }
+
+    /**
+     * Writes the buffered events now rather than at the next scheduled write, for example when a game ends.
+     */
+    public void flush() {
+        WRITER.execute(this::writeBatch);
+    }
+
+    /** Empties the ring buffer into one batch at the end of the session file. */
+    private void writeBatch() {
+        long tail = TAIL.get();
+        long head = HEAD.get();
+        long dropped = DROPPED.get();
+        if (head == tail && dropped == droppedWritten) {
+            return;
+        }
+
+        // 1) Encode the events; frames are stored as the difference from the previous event
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        int previousFrame = 0;
+        for (long i = tail; i < head; i++) {
+            long event = EVENTS[(int) i & MASK];
+            int frame = (int) (event >>> 32);
+            putVarint(payload, frame - previousFrame);
+            payload.write((int) (event >>> 8) & 0xFF);
+            payload.write((int) event & 0xFF);
+            previousFrame = frame;
+        }
+        TAIL.lazySet(head);   // The slots can be reused now that they have been copied
+
+        // 2) Append the batch
+        if (channel == null) {
+            return;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.toByteArray());
+        ByteBuffer batch = ByteBuffer.allocate(2 * Integer.BYTES + payload.size() + Long.BYTES);
+        batch.putInt(payload.size()).putInt((int) (dropped - droppedWritten));
+        batch.put(payload.toByteArray()).putLong(crc.getValue());
+        droppedWritten = dropped;
+        try {
+            writeFully(batch.array());
+        } catch (IOException ex) {
+            System.err.println("Telemetry stopped: " + ex.getMessage());
+            channel = null;
+        }
+    }
+
+    private void writeFully(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void putVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
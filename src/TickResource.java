@@ -0,0 +1,32 @@
+/**
+ * The parts of the game state that the systems of a tick read and write, as bits to combine with {@code |}.
+ * A {@link SystemGraph} keeps any two systems that touch the same part, one of them writing it,
+ * in the order they were added; systems that share nothing may run at the same time.
+ */
+public final class TickResource {
+    /** Mario, his sprite and the barrels he has jumped this jump. */
+    public static final int MARIO = 1;
+    /** Donkey Kong. */
+    public static final int DONKEY = 1 << 1;
+    /** Barrels. */
+    public static final int BARRELS = 1 << 2;
+    /** Ladders. */
+    public static final int LADDERS = 1 << 3;
+    /** Platforms, which never move once the level is built. */
+    public static final int PLATFORMS = 1 << 4;
+    /** Monkeys. */
+    public static final int MONKEYS = 1 << 5;
+    /** Bananas in flight. */
+    public static final int BANANAS = 1 << 6;
+    /** Bullets in flight. */
+    public static final int BULLETS = 1 << 7;
+    /** Hammers and blasters waiting to be collected. */
+    public static final int ITEMS = 1 << 8;
+    /** The chasing monkeys' way to Mario and the AI job queue. */
+    public static final int ROUTES = 1 << 9;
+    /** The clock, score, bullet count, game over flag and the events a tick found for telemetry. */
+    public static final int GAME = 1 << 10;
+
+    private TickResource() {
+    }
+}
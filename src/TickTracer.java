@@ -0,0 +1,242 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes one row per frame of play to a columnar trace file for offline analysis.
+ * Rows are gathered into blocks of {@link #BLOCK_ROWS} frames, and each block is written column by column:
+ * <pre>
+ *   header: int magic ("DKTR"), int format version, int column count,
+ *           per column: UTF name, byte type (0 = int, 1 = double)
+ *   block:  int length of the rest of the block, int row count,
+ *           per column: min and max (as the column type), int compressed length, deflated values
+ *           long CRC32 of the block after the length
+ * </pre>
+ * A reader can skip a whole block, or a column it does not need, using the lengths, and skip blocks
+ * whose min/max rule out what it is looking for, without inflating them.
+ * Compression and writing happen on a background thread.
+ */
+public class TickTracer {
+    /** The level being played. */
+    public static final int LEVEL = 0;
+    /** The frame of the level. */
+    public static final int FRAME = 1;
+    /** Mario's x-coordinate. */
+    public static final int MARIO_X = 2;
+    /** Mario's y-coordinate. */
+    public static final int MARIO_Y = 3;
+    /** Mario's vertical velocity. */
+    public static final int MARIO_VELOCITY_Y = 4;
+    /** 1 while Mario is jumping, 0 otherwise. */
+    public static final int JUMPING = 5;
+    /** Mario's weapon: 0 for none, 1 for the hammer, 2 for the blaster. */
+    public static final int WEAPON = 6;
+    /** Monkeys still alive in the active part of the level. */
+    public static final int MONKEYS_ALIVE = 7;
+    /** Bullets in flight. */
+    public static final int BULLETS = 8;
+    /** Bananas in flight. */
+    public static final int BANANAS = 9;
+    /** The score. */
+    public static final int SCORE = 10;
+    /** Nanoseconds spent on ladders, barrels and Donkey, added up over the threads that ran them. */
+    public static final int WORLD_NANOS = 11;
+    /** Nanoseconds spent on monkeys. */
+    public static final int MONKEY_NANOS = 12;
+    /** Nanoseconds spent on Mario. */
+    public static final int MARIO_NANOS = 13;
+    /** Nanoseconds spent on bananas, bullets and collisions. */
+    public static final int PROJECTILE_NANOS = 14;
+    /** Nanoseconds spent drawing the level, score, health and time. */
+    public static final int HUD_NANOS = 15;
+    /** Nanoseconds spent on AI jobs, such as the chasing monkeys' path searches. */
+    public static final int AI_NANOS = 16;
+    /** Steps of AI jobs run. */
+    public static final int AI_STEPS = 17;
+    /** AI jobs left unfinished for a later frame. */
+    public static final int AI_PENDING = 18;
+    /** Frames the oldest unfinished AI job has been waiting. */
+    public static final int AI_WAIT = 19;
+    /** Times so far in the level an AI job was carried over to the next frame. */
+    public static final int AI_DEFERRED = 20;
+    /** Frames so far in the level that ended with AI jobs unfinished. */
+    public static final int AI_STARVED = 21;
+    /** The most frames any AI job of the level has taken to finish. */
+    public static final int AI_LONGEST_WAIT = 22;
+
+    private static final String[] NAMES = {
+            "level", "frame", "marioX", "marioY", "marioVelocityY", "jumping", "weapon", "monkeysAlive",
+            "bullets", "bananas", "score", "worldNanos", "monkeyNanos", "marioNanos", "projectileNanos", "hudNanos",
+            "aiNanos", "aiSteps", "aiPending", "aiWait", "aiDeferred", "aiStarved", "aiLongestWait"
+    };
+    private static final boolean[] IS_DOUBLE = {
+            false, false, true, true, true, false, false, false,
+            false, false, false, false, false, false, false, false,
+            false, false, false, false, false, false, false
+    };
+    private static final int MAGIC = 0x444B5452;   // "DKTR"
+    private static final int VERSION = 1;
+    private static final int BLOCK_ROWS = 4096;    // Just over a minute of play
+
+    private final ExecutorService WRITER;
+    private FileChannel channel;   // Writer thread only
+
+    // Render thread only; doubles are kept as their raw bits
+    private long[][] columns = new long[NAMES.length][BLOCK_ROWS];
+    private int rows = 0;
+
+    /**
+     * Starts a trace file in a directory.
+     *
+     * @param directory The directory holding the trace files.
+     */
+    public TickTracer(Path directory) {
+        Path file = directory.resolve("trace-" + System.currentTimeMillis() + ".trc");
+        this.WRITER = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tick-tracer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        WRITER.submit(() -> {
+            try {
+                Files.createDirectories(directory);
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(NAMES.length);
+                for (int i = 0; i < NAMES.length; i++) {
+                    out.writeUTF(NAMES[i]);
+                    out.writeByte(IS_DOUBLE[i] ? 1 : 0);
+                }
+                writeFully(bytes.toByteArray());
+            } catch (IOException ex) {
+                System.err.println("Trace disabled: " + ex.getMessage());
+                channel = null;
+            }
+        });
+    }
+
+    /**
+     * Sets a whole-number column of the current frame.
+     *
+     * @param column One of the column constants.
+     * @param value  The value.
+     */
+    public void set(int column, long value) {
+        columns[column][rows] = value;
+    }
+
+    /**
+     * Sets a decimal column of the current frame.
+     *
+     * @param column One of the column constants.
+     * @param value  The value.
+     */
+    public void set(int column, double value) {
+        columns[column][rows] = Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Finishes the current frame, handing the block to the writer thread once it is full.
+     */
+    public void endFrame() {
+        rows++;
+        if (rows == BLOCK_ROWS) {
+            flush();
+        }
+    }
+
+    /**
+     * Hands the frames gathered so far to the writer thread, for example when a game ends.
+     */
+    public void flush() {
+        if (rows == 0) {
+            return;
+        }
+        long[][] block = columns;
+        int count = rows;
+        columns = new long[NAMES.length][BLOCK_ROWS];
+        rows = 0;
+        WRITER.submit(() -> writeBlock(block, count));
+    }
+
+    /** Compresses each column of a block and appends the block to the file. */
+    private void writeBlock(long[][] block, int count) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(count);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            byte[] compressed = new byte[BLOCK_ROWS * Long.BYTES + 64];
+            for (int column = 0; column < block.length; column++) {
+                // 1) Stats, so a reader can rule the block out without inflating it
+                ByteBuffer values = ByteBuffer.allocate(count * (IS_DOUBLE[column] ? Double.BYTES : Integer.BYTES));
+                if (IS_DOUBLE[column]) {
+                    double min = Double.POSITIVE_INFINITY;
+                    double max = Double.NEGATIVE_INFINITY;
+                    for (int row = 0; row < count; row++) {
+                        double value = Double.longBitsToDouble(block[column][row]);
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                        values.putDouble(value);
+                    }
+                    out.writeDouble(min);
+                    out.writeDouble(max);
+                } else {
+                    int min = Integer.MAX_VALUE;
+                    int max = Integer.MIN_VALUE;
+                    for (int row = 0; row < count; row++) {
+                        int value = (int) block[column][row];
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                        values.putInt(value);
+                    }
+                    out.writeInt(min);
+                    out.writeInt(max);
+                }
+
+                // 2) Values
+                deflater.reset();
+                deflater.setInput(values.array());
+                deflater.finish();
+                int length = 0;
+                while (!deflater.finished()) {
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                out.writeInt(length);
+                out.write(compressed, 0, length);
+            }
+            deflater.end();
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+            writeFully(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.size()).array());
+            writeFully(bytes.toByteArray());
+        } catch (IOException ex) {
+            System.err.println("Trace stopped: " + ex.getMessage());
+            channel = null;
+        }
+    }
+
+    private void writeFully(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import bagel.Input;
+import bagel.Keys;
+
+/**
+ * How fast the game runs compared with real time: 0.25x plays one tick every fourth frame, for
+ * looking closely at collisions, and 2x to 100x play several ticks each frame for unattended runs.
+ * A tick is always one sixtieth of a second of game time, so physics, monkey timers and the clock
+ * speed up together and a game plays out exactly as it would at normal speed; only the last tick
+ * of each frame is drawn.
+ */
+public class TimeScale {
+    /** The slowest scale. */
+    public static final double MIN = 0.25;
+    /** The fastest scale. */
+    public static final double MAX = 100;
+
+    private double scale;
+    private double owed = 0;   // Part of a tick due but not yet played, carried to the next frame
+
+    /**
+     * Constructs a time scale.
+     *
+     * @param scale Ticks per frame, between {@link #MIN} and {@link #MAX}.
+     */
+    public TimeScale(double scale) {
+        set(scale);
+    }
+
+    /**
+     * Retrieves the number of ticks played per frame on average.
+     * @return The number of ticks played per frame on average.
+     */
+    public double get() {
+        return scale;
+    }
+
+    /**
+     * Changes the scale, keeping it between {@link #MIN} and {@link #MAX}.
+     *
+     * @param scale Ticks per frame.
+     */
+    public void set(double scale) {
+        this.scale = Math.max(MIN, Math.min(scale, MAX));
+        owed = 0;
+    }
+
+    /**
+     * Halves the scale when MINUS is pressed and doubles it when EQUAL is pressed.
+     *
+     * @param input The current mouse/keyboard input.
+     */
+    public void update(Input input) {
+        if (input.wasPressed(Keys.MINUS)) {
+            set(scale / 2);
+        } else if (input.wasPressed(Keys.EQUAL)) {
+            set(scale * 2);
+        }
+    }
+
+    /**
+     * Retrieves how many ticks to play this frame.
+     * @return The number of ticks to play this frame, 0 on the frames skipped below 1x.
+     */
+    public int nextTicks() {
+        owed += scale;
+        int ticks = (int) owed;
+        owed -= ticks;
+        return ticks;
+    }
+}
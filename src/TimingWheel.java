@@ -0,0 +1,185 @@
+/**
+ * Runs actions at a given frame, such as a monkey's next shot, without checking every waiting action each frame.
+ * Timers are kept in a hierarchy of wheels of 64 slots. The first wheel holds timers due in the next
+ * 64 frames, one slot per frame; each further wheel covers 64 times the span of the one below it.
+ * A frame only visits the slot for that frame, and every 64 frames moves the timers of one slot
+ * of the next wheel down, so the work per frame follows the number of timers that fire,
+ * not the number that are waiting.
+ */
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;   // Slots per wheel
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int WHEELS = 4;               // Covers 2^24 frames, over three days of play
+
+    /**
+     * A scheduled action. Timers are linked into the slot they wait in, so cancelling one is constant time.
+     */
+    public static class Timer {
+        private final Runnable action;
+        private final long dueFrame;
+        private Timer previous;
+        private Timer next;
+        private boolean scheduled = true;
+
+        private Timer(Runnable action, long dueFrame) {
+            this.action = action;
+            this.dueFrame = dueFrame;
+        }
+
+        /**
+         * Retrieves the frame the timer fires on.
+         * @return The frame the timer fires on.
+         */
+        public long getDueFrame() { return dueFrame; }
+
+        /**
+         * Checks whether the timer is still waiting to fire.
+         * @return {@code true} if the timer has neither fired nor been cancelled, {@code false} otherwise.
+         */
+        public boolean isScheduled() { return scheduled; }
+    }
+
+    // Each slot is the head of a doubly linked list of timers
+    private final Timer[][] WHEEL = new Timer[WHEELS][SLOTS];
+    private Timer overflow;   // Timers beyond the last wheel, moved in as time passes
+    private long frame = 0;
+
+    /**
+     * Retrieves the current frame of the wheel.
+     * @return The number of frames the wheel has advanced.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * Schedules an action to run a number of frames from now.
+     *
+     * @param delay  Frames to wait; the action runs on the {@link #advance} that reaches that frame.
+     *               Delays below 1 run on the next frame.
+     * @param action The action to run.
+     * @return The timer, which can be cancelled.
+     */
+    public Timer schedule(long delay, Runnable action) {
+        Timer timer = new Timer(action, frame + Math.max(1, delay));
+        insert(timer);
+        return timer;
+    }
+
+    /**
+     * Cancels a timer so it never runs. Cancelling a timer that has already fired does nothing.
+     *
+     * @param timer The timer to cancel.
+     */
+    public void cancel(Timer timer) {
+        if (timer == null || !timer.scheduled) {
+            return;
+        }
+        unlink(timer);
+        timer.scheduled = false;
+    }
+
+    /**
+     * Moves to the next frame and runs every action due on it.
+     * Actions may schedule or cancel timers, including for the frame being run.
+     */
+    public void advance() {
+        frame++;
+
+        // 1) When a wheel comes round, spread the next slot of the wheel above over the wheels below
+        for (int wheel = 1; wheel < WHEELS; wheel++) {
+            if ((frame & ((1L << (SLOT_BITS * wheel)) - 1)) != 0) {
+                break;
+            }
+            cascade(wheel, (int) (frame >>> (SLOT_BITS * wheel)) & SLOT_MASK);
+        }
+        if ((frame & ((1L << (SLOT_BITS * WHEELS)) - 1)) == 0) {
+            cascadeOverflow();
+        }
+
+        // 2) Run the timers of this frame
+        int slot = (int) frame & SLOT_MASK;
+        Timer timer;
+        while ((timer = WHEEL[0][slot]) != null) {
+            unlink(timer);
+            timer.scheduled = false;
+            timer.action.run();
+        }
+    }
+
+    /** Puts a timer in the slot of the lowest wheel whose span reaches its frame. */
+    private void insert(Timer timer) {
+        long delay = timer.dueFrame - frame;
+        for (int wheel = 0; wheel < WHEELS; wheel++) {
+            if (delay < 1L << (SLOT_BITS * (wheel + 1))) {
+                int slot = (int) (timer.dueFrame >>> (SLOT_BITS * wheel)) & SLOT_MASK;
+                push(timer, wheel, slot);
+                return;
+            }
+        }
+        timer.previous = null;
+        timer.next = overflow;
+        if (overflow != null) {
+            overflow.previous = timer;
+        }
+        overflow = timer;
+    }
+
+    private void cascade(int wheel, int slot) {
+        Timer timer = WHEEL[wheel][slot];
+        WHEEL[wheel][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void cascadeOverflow() {
+        Timer timer = overflow;
+        overflow = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void push(Timer timer, int wheel, int slot) {
+        timer.previous = null;
+        timer.next = WHEEL[wheel][slot];
+        if (timer.next != null) {
+            timer.next.previous = timer;
+        }
+        WHEEL[wheel][slot] = timer;
+    }
+
+    /** Removes a timer from whichever list it is in. */
+    private void unlink(Timer timer) {
+        if (timer.previous != null) {
+            timer.previous.next = timer.next;
+        } else if (overflow == timer) {
+            overflow = timer.next;
+        } else {
+            int[] position = locate(timer);
+            WHEEL[position[0]][position[1]] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.previous = timer.previous;
+        }
+        timer.previous = null;
+        timer.next = null;
+    }
+
+    /** Finds the wheel and slot whose list starts with a timer. */
+    private int[] locate(Timer timer) {
+        for (int wheel = 0; wheel < WHEELS; wheel++) {
+            int slot = (int) (timer.dueFrame >>> (SLOT_BITS * wheel)) & SLOT_MASK;
+            if (WHEEL[wheel][slot] == timer) {
+                return new int[] {wheel, slot};
+            }
+        }
+        throw new IllegalStateException("Timer is not scheduled");
+    }
+}
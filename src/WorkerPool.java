@@ -0,0 +1,40 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The worker threads that share the simulation of a tick with the render thread, used by the
+ * {@link SystemGraph} to run independent systems and by {@link ParallelChunks} to split large arrays.
+ * There is one fewer worker than there are cores, so the calling thread, which always does its share,
+ * has a core of its own; on a single core there are none and everything runs on the calling thread.
+ */
+public final class WorkerPool {
+    private static final int MAX_WORKERS = 7;
+    private static final int SIZE = Math.max(0, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+    private static ExecutorService workers;   // Created on first use
+
+    private WorkerPool() {
+    }
+
+    /**
+     * Retrieves the shared workers, creating them on first use.
+     * @return The workers, or {@code null} if there are none.
+     */
+    public static synchronized ExecutorService get() {
+        if (workers == null && SIZE > 0) {
+            workers = Executors.newFixedThreadPool(SIZE, runnable -> {
+                Thread thread = new Thread(runnable, "tick-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    /**
+     * Retrieves the number of workers.
+     * @return The number of worker threads, 0 on a single core.
+     */
+    public static int size() {
+        return SIZE;
+    }
+}